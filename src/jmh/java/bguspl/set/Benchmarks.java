@@ -0,0 +1,42 @@
+package bguspl.set;
+
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared setup for the benchmarks: a silent environment with no user interface.
+ */
+public class Benchmarks {
+
+    /**
+     * Parses a "featureSize:featureCount" benchmark parameter.
+     *
+     * @param features - the parameter value.
+     * @return - properties holding the feature settings.
+     */
+    public static Properties featureProperties(String features) {
+        String[] sizeAndCount = features.split(":");
+        Properties properties = new Properties();
+        properties.put("FeatureSize", sizeAndCount[0]);
+        properties.put("FeatureCount", sizeAndCount[1]);
+        return properties;
+    }
+
+    /**
+     * Creates a game environment that does not log, delay or display anything.
+     *
+     * @param properties - the configuration properties to override.
+     * @return - the environment.
+     */
+    public static Env silentEnv(Properties properties) {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        properties.putIfAbsent("LogLevel", Level.OFF.getName());
+        properties.putIfAbsent("TableDelaySeconds", "0");
+        properties.putIfAbsent("PointFreezeSeconds", "0");
+        properties.putIfAbsent("PenaltyFreezeSeconds", "0");
+        Config config = new Config(logger, properties);
+        return new Env(logger, config, new UserInterfaceHeadless(), new UtilImpl(config));
+    }
+}
@@ -0,0 +1,80 @@
+package bguspl.set;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Measures set finding and set validation over decks of the different card configurations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilBenchmark {
+
+    /**
+     * The card configuration as "featureSize:featureCount".
+     */
+    @Param({"3:4", "3:5", "4:3", "3:6"})
+    public String features;
+
+    /**
+     * The number of cards to search in (capped by the deck size).
+     */
+    @Param({"12", "27", "81", "729"})
+    public int cards;
+
+    private Util util;
+    private List<Integer> deck;
+    private int[][] candidates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Env env = Benchmarks.silentEnv(Benchmarks.featureProperties(features));
+        util = env.util;
+
+        Random random = new Random(42);
+        List<Integer> allCards = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
+        Collections.shuffle(allCards, random);
+        deck = new ArrayList<>(allCards.subList(0, Math.min(cards, allCards.size())));
+
+        // a mix of legal and illegal sets to validate
+        List<int[]> sets = util.findSets(allCards, 512);
+        candidates = new int[1024][];
+        for (int i = 0; i < candidates.length; ++i)
+            candidates[i] = i % 2 == 0 && !sets.isEmpty() ? sets.get(i / 2 % sets.size())
+                    : random.ints(env.config.featureSize, 0, env.config.deckSize).toArray();
+    }
+
+    @Benchmark
+    public List<int[]> findFirstSet() {
+        return util.findSets(deck, 1);
+    }
+
+    @Benchmark
+    public List<int[]> findAllSets() {
+        return util.findSets(deck, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<int[]> findAllSetsOrdered() {
+        return util.findSets(deck, Integer.MAX_VALUE, true);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean testSet() {
+        next = (next + 1) & (candidates.length - 1);
+        return util.testSet(candidates[next]);
+    }
+}
@@ -0,0 +1,79 @@
+package bguspl.set.ex;
+
+import bguspl.set.Benchmarks;
+import bguspl.set.Env;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip from the key presses of a set to its announcement to the dealer, through a running player
+ * thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClaimBenchmark {
+
+    @Param({"2", "16", "64"})
+    public int players;
+
+    private Table table;
+    private Dealer dealer;
+    private Player player;
+    private Thread playerThread;
+    private int[] setSlots;
+
+    @Setup
+    public void setUp() {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", Integer.toString(players));
+        properties.put("ComputerPlayers", "0");
+        Env env = Benchmarks.silentEnv(properties);
+        Player[] allPlayers = new Player[players];
+        table = new Table(env);
+        dealer = new Dealer(env, table, allPlayers);
+        for (int i = 0; i < players; ++i)
+            allPlayers[i] = new Player(env, dealer, table, i, true);
+        player = allPlayers[0];
+
+        // the first cards of the deck (0000, 0001, 0002...) form a set
+        setSlots = new int[env.config.featureSize];
+        for (int slot = 0; slot < env.config.tableSize; ++slot)
+            table.placeCard(slot, slot);
+        for (int i = 0; i < setSlots.length; ++i)
+            setSlots[i] = i;
+        table.switchingCards = false;
+
+        playerThread = new Thread(player, "player-0");
+        playerThread.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        player.terminate();
+        playerThread.interrupt();
+        playerThread.join();
+    }
+
+    @Benchmark
+    public int pressSetUntilAnnounced() {
+        for (int slot : setSlots)
+            player.keyPressed(slot);
+        List<ClaimQueue.Claim> claims;
+        while ((claims = table.claims.drain()).isEmpty())
+            Thread.yield();
+        int claimer = claims.get(0).player;
+
+        // release the player the way the dealer does after rejecting a claim, leaving the cards in place
+        for (int slot : setSlots)
+            table.removeToken(player.id, slot);
+        dealer.playerShouldWait[player.id].signalAll(() -> table.shouldWait[player.id] = false);
+        return claimer;
+    }
+}
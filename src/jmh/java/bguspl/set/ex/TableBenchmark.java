@@ -0,0 +1,90 @@
+package bguspl.set.ex;
+
+import bguspl.set.Benchmarks;
+import bguspl.set.Env;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the token operations of the table, alone and with several players competing for the table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableBenchmark {
+
+    @Param({"2", "4", "16", "64"})
+    public int players;
+
+    private Env env;
+    private Table table;
+    private final AtomicInteger nextPlayer = new AtomicInteger();
+
+    /**
+     * The player (and its token slots) used by each benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class PlayerState {
+        int player;
+        int slot;
+
+        @Setup
+        public void setUp(TableBenchmark benchmark) {
+            player = benchmark.nextPlayer.getAndIncrement() % benchmark.players;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", Integer.toString(players));
+        env = Benchmarks.silentEnv(properties);
+        table = new Table(env);
+        for (int slot = 0; slot < env.config.tableSize; ++slot)
+            table.placeCard(slot, slot);
+    }
+
+    /**
+     * Places and removes a token, never completing a set.
+     */
+    @Benchmark
+    public boolean placeAndRemoveToken(PlayerState state) {
+        state.slot = (state.slot + 1) % env.config.tableSize;
+        table.placeToken(state.player, state.slot);
+        return table.removeToken(state.player, state.slot);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean placeAndRemoveTokenContended(PlayerState state) {
+        return placeAndRemoveToken(state);
+    }
+
+    @Benchmark
+    public boolean playerHasSet(PlayerState state) {
+        return table.playerHasSet(state.player);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean playerHasSetContended(PlayerState state) {
+        return table.playerHasSet(state.player);
+    }
+
+    /**
+     * Replaces a card, which also sweeps the tokens of every player from its slot.
+     */
+    @Benchmark
+    public void replaceCard(PlayerState state) {
+        state.slot = (state.slot + 1) % env.config.tableSize;
+        table.removeCard(state.slot);
+        table.placeCard(state.slot, state.slot);
+    }
+}
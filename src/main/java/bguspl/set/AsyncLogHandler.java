@@ -0,0 +1,193 @@
+package bguspl.set;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * This class is a log handler that never blocks the threads that log. Records are put in a bounded lock-free ring
+ * buffer and a single writer thread formats them and passes them in batches to the delegate handler (a file handler,
+ * usually), flushing it once per batch. When the buffer is full the record is dropped and counted.
+ */
+public class AsyncLogHandler extends Handler {
+
+    /**
+     * The maximum number of records passed to the delegate before it is flushed.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * How long (in nanoseconds) the writer sleeps when there is nothing to write.
+     */
+    private static final long IDLE_NANOS = 1_000_000;
+
+    /**
+     * The handler that actually writes the records.
+     */
+    private final Handler delegate;
+
+    /**
+     * The ring buffer. The sequence of each cell tells whose turn it is: position p may be written when the sequence
+     * is p and read when it is p + 1.
+     */
+    private final LogRecord[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    /**
+     * The next position to write to (claimed by the logging threads) and the position up to which the records were
+     * written (advanced by the writer thread after each batch).
+     */
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * The number of records written and dropped.
+     */
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * The class constructor.
+     *
+     * @param delegate - the handler that writes the records.
+     * @param capacity - the number of records the buffer holds (rounded up to a power of 2).
+     */
+    public AsyncLogHandler(Handler delegate, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        this.delegate = delegate;
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        buffer = new LogRecord[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+        mask = size - 1;
+
+        writer = new Thread(this::writeLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) return;
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = record;
+                    sequences.set(index, position + 1);
+                    return;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // the writer is a full lap behind
+                dropped.increment();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Waits until the records published so far are written, then flushes the delegate.
+     */
+    @Override
+    public void flush() {
+        long target = tail.get();
+        while (head < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(IDLE_NANOS / 10);
+        }
+        delegate.flush();
+    }
+
+    /**
+     * Writes the remaining records and closes the delegate.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.sum() > 0)
+            delegate.publish(new LogRecord(Level.WARNING, "dropped " + dropped.sum() + " log records"));
+        delegate.close();
+    }
+
+    @Override
+    public synchronized void setFormatter(Formatter formatter) {
+        super.setFormatter(formatter);
+        delegate.setFormatter(formatter);
+    }
+
+    /**
+     * @return - the number of records written so far.
+     */
+    public long written() {
+        return written.sum();
+    }
+
+    /**
+     * @return - the number of records dropped because the buffer was full.
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * The writer thread starts here. It runs until the handler is closed and the buffer is empty.
+     */
+    private void writeLoop() {
+        long position = head;
+        while (true) {
+            int batch = 0;
+            LogRecord record;
+            while (batch < BATCH_SIZE && (record = poll(position)) != null) {
+                delegate.publish(record);
+                position++;
+                batch++;
+            }
+            if (batch > 0) {
+                delegate.flush();
+                written.add(batch);
+                head = position;
+            } else if (closed) {
+                return;
+            } else {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Takes a record out of the buffer, freeing its cell for the next lap.
+     *
+     * @param position - the position to read from.
+     * @return - the record in the position, or null if it was not written yet.
+     */
+    private LogRecord poll(long position) {
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) return null;
+        LogRecord record = buffer[index];
+        buffer[index] = null;
+        sequences.set(index, position + mask + 1);
+        return record;
+    }
+}
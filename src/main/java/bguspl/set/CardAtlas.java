@@ -0,0 +1,213 @@
+package bguspl.set;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.logging.Logger;
+
+/**
+ * This class holds the card images, scaled to the size of a table cell, in pages of a row of cells each (the atlas).
+ * A card is decoded and scaled the first time it is drawn, so the start-up time does not grow with the size of the
+ * deck. When the deck has no image resources (e.g. with more than 3 values or 4 features), the cards are drawn from
+ * their features.
+ * Note: a page holds cellWidth * cellHeight * 4 bytes for each of its cells, and is allocated when the first of its
+ * cards is drawn, so the memory follows the cards that were actually dealt rather than the size of the deck.
+ * The atlas is not thread safe: it is meant to be used on the event dispatch thread only.
+ */
+class CardAtlas {
+
+    /**
+     * The colors of the feature values of procedural cards (a value past the palette gets a generated hue).
+     */
+    private static final Color[] PALETTE = {
+            new Color(0xD32F2F), new Color(0x388E3C), new Color(0x7B1FA2), new Color(0x1976D2), new Color(0xF57C00)
+    };
+
+    private final Logger logger;
+    private final Config config;
+    private final Util util;
+
+    /**
+     * The cards in the atlas are laid out in pages of this many cells. The empty card is the one after the deck.
+     */
+    private final int columns;
+
+    /**
+     * The pages of the atlas (null until one of their cards is drawn).
+     */
+    private final BufferedImage[] pages;
+
+    /**
+     * True iff every card of the deck has an image resource (otherwise all the cards are drawn from their features,
+     * so that they look alike).
+     */
+    private final boolean cardImages;
+
+    /**
+     * True for each card already drawn into the atlas.
+     */
+    private final boolean[] loaded;
+
+    CardAtlas(Logger logger, Config config, Util util) {
+        this.logger = logger;
+        this.config = config;
+        this.util = util;
+        int cards = config.deckSize + 1;
+        columns = (int) Math.ceil(Math.sqrt(cards));
+        pages = new BufferedImage[(cards + columns - 1) / columns];
+        loaded = new boolean[cards];
+        // the card with the highest value of every feature has the last image resource name
+        cardImages = config.featureSize <= 10 && getClass().getClassLoader().getResource(imageName(config.deckSize - 1)) != null;
+    }
+
+    /**
+     * Draws a card.
+     *
+     * @param g    - the graphics to draw on.
+     * @param card - the card to draw, or a negative number for the empty card.
+     * @param x    - the left of the cell to draw the card in.
+     * @param y    - the top of the cell to draw the card in.
+     */
+    void draw(Graphics g, int card, int x, int y) {
+        int index = card < 0 ? config.deckSize : card;
+        if (!loaded[index]) load(index);
+        int sx = index % columns * config.cellWidth;
+        g.drawImage(pages[index / columns], x, y, x + config.cellWidth, y + config.cellHeight,
+                sx, 0, sx + config.cellWidth, config.cellHeight, null);
+    }
+
+    /**
+     * @return - the number of pages of the atlas allocated so far.
+     */
+    int allocatedPages() {
+        int allocated = 0;
+        for (BufferedImage page : pages)
+            if (page != null) allocated++;
+        return allocated;
+    }
+
+    /**
+     * Decodes the image of a card (or generates it) and scales it into the card's cell of the atlas.
+     */
+    private void load(int index) {
+        int page = index / columns;
+        if (pages[page] == null)
+            pages[page] = new BufferedImage(columns * config.cellWidth, config.cellHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = pages[page].createGraphics();
+        try {
+            g.translate(index % columns * config.cellWidth, 0);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            BufferedImage image = null;
+            if (index == config.deckSize) image = readImage("cards/empty_card.png");
+            else if (cardImages) image = readImage(imageName(index));
+            if (image != null) g.drawImage(image, 0, 0, config.cellWidth, config.cellHeight, null);
+            else if (index == config.deckSize) drawEmptyCard(g);
+            else drawCard(g, util.cardToFeatures(index));
+        } finally {
+            g.dispose();
+        }
+        loaded[index] = true;
+    }
+
+    /**
+     * @return - the name of the image resource of a card: a digit for each of its features.
+     */
+    private String imageName(int card) {
+        return "cards/" + UserInterfaceSwing.intInBaseToPaddedString(card, config.featureCount, config.featureSize) + ".png";
+    }
+
+    /**
+     * @return - the image resource, or null if there is none (or it cannot be decoded).
+     */
+    private BufferedImage readImage(String filename) {
+        URL imageResource = getClass().getClassLoader().getResource(filename);
+        if (imageResource == null) return null;
+        try {
+            return ImageIO.read(imageResource);
+        } catch (IOException e) {
+            logger.warning("cannot decode " + filename + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void drawEmptyCard(Graphics2D g) {
+        g.setColor(Color.LIGHT_GRAY);
+        g.drawRoundRect(4, 4, config.cellWidth - 9, config.cellHeight - 9, 16, 16);
+    }
+
+    /**
+     * Draws a card from its features: the 1st feature is the number of shapes, the 2nd their color, the 3rd their
+     * shape and the 4th their shading. When the shapes cannot tell all the values apart (more than 3 values or 4
+     * features), the features are also written in the corner of the card.
+     */
+    private void drawCard(Graphics2D g, int[] features) {
+        int width = config.cellWidth - 8;
+        int height = config.cellHeight - 8;
+        g.setColor(Color.WHITE);
+        g.fillRoundRect(4, 4, width, height, 16, 16);
+        g.setColor(Color.GRAY);
+        g.drawRoundRect(4, 4, width, height, 16, 16);
+
+        int count = (features.length > 0 ? features[0] : 0) + 1;
+        Color color = color(features.length > 1 ? features[1] : 0);
+        int shape = features.length > 2 ? features[2] : 0;
+        int shading = features.length > 3 ? features[3] : 0;
+
+        int shapeWidth = Math.min(width / (count + 1), height / 2);
+        int shapeHeight = height * 2 / 3;
+        int gap = (width - count * shapeWidth) / (count + 1);
+        g.setStroke(new BasicStroke(Math.max(2f, shapeWidth / 16f)));
+        for (int i = 0; i < count; i++) {
+            int x = 4 + gap + i * (shapeWidth + gap);
+            int y = 4 + (height - shapeHeight) / 2;
+            Shape outline = shape(shape, x, y, shapeWidth, shapeHeight);
+            g.setColor(color);
+            if (shading % 3 == 1) {
+                g.setPaint(new GradientPaint(x, y, color, x + 4, y + 4, Color.WHITE, true));
+                g.fill(outline);
+            } else if (shading % 3 == 2) {
+                g.fill(outline);
+            }
+            g.setColor(color);
+            g.draw(outline);
+        }
+
+        if (config.featureSize > 3 || features.length > 4) {
+            StringBuilder label = new StringBuilder();
+            for (int feature : features)
+                label.append(label.length() > 0 ? "." : "").append(feature);
+            g.setColor(Color.DARK_GRAY);
+            g.setFont(new Font("Serif", Font.PLAIN, Math.max(10, config.cellHeight / 8)));
+            g.drawString(label.toString(), 12, 4 + height - 8);
+        }
+    }
+
+    private static Color color(int value) {
+        if (value < PALETTE.length) return PALETTE[value];
+        // spread the hues of the other values by the golden ratio
+        return Color.getHSBColor((value * 0.618034f) % 1f, 0.8f, 0.8f);
+    }
+
+    private static Shape shape(int value, int x, int y, int width, int height) {
+        switch (value % 3) {
+            case 0:
+                return new Ellipse2D.Float(x, y, width, height);
+            case 1: {
+                Path2D.Float diamond = new Path2D.Float();
+                diamond.moveTo(x + width / 2f, y);
+                diamond.lineTo(x + width, y + height / 2f);
+                diamond.lineTo(x + width / 2f, y + height);
+                diamond.lineTo(x, y + height / 2f);
+                diamond.closePath();
+                return diamond;
+            }
+            default:
+                return new Rectangle(x, y, width, height);
+        }
+    }
+}
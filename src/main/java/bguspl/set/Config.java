@@ -21,6 +21,13 @@ public class Config {
     public final long randomSpinMin;
     public final long randomSpinMax;
 
+    /**
+     * The seed of all the random choices of a game: the deals, the computer players and the random spins (null for a
+     * different seed every game)
+     * Note: every game of a seeded run deals the same cards.
+     */
+    public final Long randomSeed;
+
     /**
      * The number of features on the cards (e.g. shape, color etc.)
      */
@@ -46,6 +53,23 @@ public class Config {
      */
     public final int computerPlayers;
 
+    /**
+     * How the computer players choose the cards to press: random (any cards) or solver (a set on the table)
+     */
+    public final String computerStrategy;
+
+    /**
+     * The mean and standard deviation of the number of milliseconds a solver computer player takes to react to the
+     * cards on the table (normally distributed, and never below 0)
+     */
+    public final long computerReactionMillis;
+    public final long computerReactionDeviationMillis;
+
+    /**
+     * The probability that a solver computer player presses a set rather than random cards
+     */
+    public final double computerSkill;
+
     /**
      * The total number of players (human + computer) in the game
      */
@@ -86,6 +110,24 @@ public class Config {
      */
     public final long endGamePauseMillies;
 
+    /**
+     * Whether the players (and computer players) run on virtual threads rather than platform threads
+     * Note: virtual threads need Java 21 or newer; on older JVMs platform threads are used.
+     */
+    public final boolean virtualThreads;
+
+    /**
+     * The file to journal the game events to (empty for no journal)
+     * Note: the journal holds at most journalCapacity events; later events are dropped.
+     */
+    public final String journalFile;
+    public final int journalCapacity;
+
+    /**
+     * The number of milliseconds between writing the game statistics to the log (0 for never)
+     */
+    public final long metricsDumpMillis;
+
     /**
      * The names of the players to display on the screen
      * Note: if there are more players than names, the remaining players will be called "Player 3", "Player 4", etc.
@@ -132,6 +174,12 @@ public class Config {
      */
     public final int fontSize;
 
+    /**
+     * The maximum number of times per second the display is redrawn
+     * Note: the changes the game makes between two frames are drawn together.
+     */
+    public final int framesPerSecond;
+
     /**
      * The scancodes of the keyboard input data for each player
      * Notes:
@@ -155,7 +203,7 @@ public class Config {
      * @param filename - the name of the configuration file.
      * @return - a properties object with the configuration file contents.
      */
-    private static Properties loadProperties(String filename, Logger logger) {
+    static Properties loadProperties(String filename, Logger logger) {
 
         Properties properties = new Properties();
 
@@ -190,6 +238,8 @@ public class Config {
         // for debugging
         randomSpinMin = Long.parseLong(properties.getProperty("RandomSpinMin", "0"));
         randomSpinMax = Long.parseLong(properties.getProperty("RandomSpinMax", "0"));
+        String seed = properties.getProperty("RandomSeed", "").trim();
+        randomSeed = seed.isEmpty() ? null : Long.parseLong(seed);
         if (randomSpinMax < randomSpinMin || randomSpinMin < 0)
             logger.severe("invalid random spin cycles: max: " + randomSpinMax + " min: " + randomSpinMin);
 
@@ -202,6 +252,15 @@ public class Config {
         humanPlayers = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
         computerPlayers = Integer.parseInt(properties.getProperty("ComputerPlayers", "2"));
         players = humanPlayers + computerPlayers;
+        String strategy = properties.getProperty("ComputerStrategy", "random").trim().toLowerCase();
+        if (!strategy.equals("random") && !strategy.equals("solver")) {
+            logger.severe("warning: unknown computer strategy " + strategy + ". Using random.");
+            strategy = "random";
+        }
+        computerStrategy = strategy;
+        computerReactionMillis = (long) (Double.parseDouble(properties.getProperty("ComputerReactionSeconds", "1")) * 1000.0);
+        computerReactionDeviationMillis = (long) (Double.parseDouble(properties.getProperty("ComputerReactionDeviationSeconds", "0.3")) * 1000.0);
+        computerSkill = Double.parseDouble(properties.getProperty("ComputerSkill", "0.9"));
 
         hints = Boolean.parseBoolean(properties.getProperty("Hints", "False"));
         turnTimeoutMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutSeconds", "60")) * 1000.0);
@@ -211,6 +270,22 @@ public class Config {
         tableDelayMillis = (long) (Double.parseDouble(properties.getProperty("TableDelaySeconds", "0.1")) * 1000.0);
         endGamePauseMillies = (long) (Double.parseDouble(properties.getProperty("EndGamePauseSeconds", "5")) * 1000.0);
 
+        // execution settings
+        String executionBackend = properties.getProperty("ExecutionBackend", "platform").trim();
+        boolean virtual = executionBackend.equalsIgnoreCase("virtual");
+        if (!virtual && !executionBackend.equalsIgnoreCase("platform"))
+            logger.severe("warning: unknown execution backend " + executionBackend + ". Using platform threads.");
+        if (virtual && !ThreadBackend.virtualThreadsSupported())
+            logger.severe("warning: virtual threads are not supported by this JVM. Using platform threads.");
+        virtualThreads = virtual && ThreadBackend.virtualThreadsSupported();
+
+        // journal settings
+        journalFile = properties.getProperty("JournalFile", "").trim();
+        journalCapacity = Integer.parseInt(properties.getProperty("JournalCapacity", "1048576"));
+
+        // metrics settings
+        metricsDumpMillis = (long) (Double.parseDouble(properties.getProperty("MetricsDumpSeconds", "0")) * 1000.0);
+
         // ui settings
         String[] names = properties.getProperty("PlayerNames", "Player 1, Player 2").split(",");
         playerNames = new String[players];
@@ -224,6 +299,7 @@ public class Config {
         playerCellWidth = Integer.parseInt(properties.getProperty("PlayerCellWidth", "300"));
         playerCellHeight = Integer.parseInt(properties.getProperty("PlayerCellHeight", "40"));
         fontSize = Integer.parseInt(properties.getProperty("FontSize", "40"));
+        framesPerSecond = Integer.parseInt(properties.getProperty("FramesPerSecond", "60"));
 
         // keyboard input data
         playerKeys = new int[players][rows * columns];
@@ -1,5 +1,6 @@
 package bguspl.set;
 
+import java.util.SplittableRandom;
 import java.util.logging.Logger;
 
 public class Env {
@@ -8,11 +9,24 @@ public class Env {
     public final Config config;
     public final UserInterface ui;
     public final Util util;
+    public final Journal journal;
 
-    public Env(Logger logger, Config config, UserInterface ui, Util util) {
+    /**
+     * The source of the random streams of the game (seeded by Config::randomSeed). The dealer and then every player, in
+     * order, split their own stream off it while the game is built, so it is not used by more than one thread.
+     */
+    public final SplittableRandom random;
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, Journal journal) {
         this.logger = logger;
         this.config = config;
         this.ui = ui;
         this.util = util;
+        this.journal = journal;
+        random = config.randomSeed == null ? new SplittableRandom() : new SplittableRandom(config.randomSeed);
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util) {
+        this(logger, config, ui, util, Journal.DISABLED);
     }
 }
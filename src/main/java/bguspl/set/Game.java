@@ -0,0 +1,146 @@
+package bguspl.set;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.GameMetrics;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+/**
+ * This class holds the entities of a single game - its table, dealer and players - and runs it to its end.
+ * Games do not share any mutable state, so any number of them may run side by side in the same JVM.
+ */
+public class Game implements Runnable {
+
+    /**
+     * The stages in the life of a game.
+     */
+    public enum State {WAITING, RUNNING, FINISHED, FAILED}
+
+    /**
+     * The id of the game.
+     */
+    public final int id;
+
+    /**
+     * The game environment object.
+     */
+    public final Env env;
+
+    /**
+     * The game entities.
+     */
+    public final Table table;
+    public final Dealer dealer;
+    public final Player[] players;
+
+    /**
+     * The stage the game is in.
+     */
+    private volatile State state = State.WAITING;
+
+    /**
+     * The times (in nanoseconds) the game was created, started and ended (0 if it did not start or end yet).
+     */
+    private final long createdNanos = System.nanoTime();
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    /**
+     * The class constructor.
+     *
+     * @param id      - the id of the game.
+     * @param env     - the game environment object.
+     * @param players - the (empty) array to hold the players, of length env.config.players. The user interface may
+     *                already hold it.
+     */
+    public Game(int id, Env env, Player[] players) {
+        this.id = id;
+        this.env = env;
+        this.players = players;
+        table = new Table(env);
+        dealer = new Dealer(env, table, players);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, i < env.config.humanPlayers);
+    }
+
+    public Game(int id, Env env) {
+        this(id, env, new Player[env.config.players]);
+    }
+
+    /**
+     * Plays the game to its end on the calling thread. While it is played, its statistics are registered with JMX.
+     */
+    @Override
+    public void run() {
+        startNanos = System.nanoTime();
+        state = State.RUNNING;
+        metrics().register("game-" + id, env.logger);
+        try {
+            dealer.run();
+            state = State.FINISHED;
+        } catch (RuntimeException e) {
+            state = State.FAILED;
+            env.logger.severe("game " + id + " failed: " + e);
+            dealer.terminate();
+        } finally {
+            metrics().unregister();
+            endNanos = System.nanoTime();
+            // the dealer interrupts its own thread when the game ends, which must not leak to the next game
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Ends the game before its time.
+     */
+    public void terminate() {
+        boolean interrupted = Thread.interrupted();
+        dealer.terminate();
+        // the dealer interrupts the calling thread - restore its interrupt status
+        if (!interrupted) Thread.interrupted();
+    }
+
+    /**
+     * @return - the stage the game is in.
+     */
+    public State state() {
+        return state;
+    }
+
+    /**
+     * @return - the statistics of the game.
+     */
+    public GameMetrics metrics() {
+        return dealer.metrics();
+    }
+
+    /**
+     * @return - the time (in nanoseconds) the game waited for a thread to play it on.
+     */
+    public long waitingNanos() {
+        return (startNanos == 0 ? System.nanoTime() : startNanos) - createdNanos;
+    }
+
+    /**
+     * @return - the time (in nanoseconds) the game was played for so far.
+     */
+    public long runningNanos() {
+        if (startNanos == 0) return 0;
+        return (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    /**
+     * @return - the number of legal sets collected per second of play.
+     */
+    public double setsPerSecond() {
+        long running = runningNanos();
+        return running == 0 ? 0 : metrics().sets.sum() * 1e9 / running;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("game %d: %s, waited %.2fs, ran %.2fs, %d sets, %d claims, %.2f sets/s", id, state,
+                waitingNanos() / 1e9, runningNanos() / 1e9, metrics().sets.sum(), metrics().claims.sum(),
+                setsPerSecond());
+    }
+}
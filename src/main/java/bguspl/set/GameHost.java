@@ -0,0 +1,136 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * This class hosts many games in the same JVM. Each game gets its own table, dealer and players, while the immutable
+ * resources - the configuration and the precomputed card features of the util - are shared by all of them.
+ * At most maxRunningGames games are played at the same time; the rest wait for their turn in order of submission.
+ */
+public class GameHost {
+
+    /**
+     * The shared game resources.
+     */
+    private final Logger logger;
+    private final Config config;
+    private final Util util;
+
+    /**
+     * The threads that play the games (one dealer per thread).
+     */
+    private final ExecutorService pool;
+
+    /**
+     * All the games submitted to the host, in order of submission.
+     */
+    private final List<Game> games = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * The id of the next game submitted.
+     */
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * The class constructor.
+     *
+     * @param logger          - the logger shared by all the games.
+     * @param config          - the configuration shared by all the games.
+     * @param maxRunningGames - the number of games played at the same time.
+     */
+    public GameHost(Logger logger, Config config, int maxRunningGames) {
+        if (maxRunningGames < 1) throw new IllegalArgumentException("maxRunningGames must be positive");
+        this.logger = logger;
+        this.config = config;
+        this.util = new UtilImpl(config);
+        AtomicInteger threads = new AtomicInteger();
+        pool = new ThreadPoolExecutor(maxRunningGames, maxRunningGames, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), task -> new Thread(task, "game-host-" + threads.getAndIncrement()));
+    }
+
+    /**
+     * Submits a new game with no user interface.
+     *
+     * @return - the game, waiting for its turn to be played.
+     */
+    public Game submit() {
+        return submit(new UserInterfaceHeadless());
+    }
+
+    /**
+     * Submits a new game.
+     *
+     * @param ui - the user interface of the game.
+     * @return - the game, waiting for its turn to be played.
+     */
+    public Game submit(UserInterface ui) {
+        Game game = new Game(nextId.getAndIncrement(), new Env(logger, config, ui, util));
+        games.add(game);
+        pool.execute(game);
+        return game;
+    }
+
+    /**
+     * @return - a snapshot of all the games submitted to the host.
+     */
+    public List<Game> games() {
+        synchronized (games) {
+            return new ArrayList<>(games);
+        }
+    }
+
+    /**
+     * @return - the number of games in each stage.
+     */
+    public Map<Game.State, Integer> stateCounts() {
+        Map<Game.State, Integer> counts = new EnumMap<>(Game.State.class);
+        for (Game.State state : Game.State.values())
+            counts.put(state, 0);
+        for (Game game : games())
+            counts.merge(game.state(), 1, Integer::sum);
+        return counts;
+    }
+
+    /**
+     * @return - the number of legal sets collected per second, over all the games.
+     */
+    public double setsPerSecond() {
+        return games().stream().mapToDouble(Game::setsPerSecond).sum();
+    }
+
+    /**
+     * Stops accepting new games. The submitted games are still played.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Stops accepting new games, drops the waiting games and ends the running ones.
+     */
+    public void terminate() {
+        pool.shutdownNow();
+        for (Game game : games())
+            if (game.state() == Game.State.RUNNING) game.terminate();
+    }
+
+    /**
+     * Waits for all the games to end after a shutdown or a termination.
+     *
+     * @param millis - the maximum time to wait.
+     * @return - true iff all the games ended.
+     */
+    public boolean awaitTermination(long millis) throws InterruptedException {
+        return pool.awaitTermination(millis, TimeUnit.MILLISECONDS);
+    }
+}
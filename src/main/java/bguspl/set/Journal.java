@@ -0,0 +1,200 @@
+package bguspl.set;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * This class journals the events of a game to a memory-mapped file of fixed-size binary records, so that the game
+ * can be replayed later (see JournalReplay). Recording an event only claims the next record and writes it to memory;
+ * the operating system writes the file in the background.
+ * <p>
+ * The file starts with a header (magic, version, record size and the start time of the game in epoch milliseconds)
+ * followed by the records: the time (nanoseconds since the journal was opened), the event, the player, the slot and
+ * a value. The file is pre-sized for config.journalCapacity records; the first record with no event ends it.
+ */
+public class Journal implements Closeable {
+
+    /**
+     * The journaled events. The meaning of the player, slot and value of each event is noted next to it
+     * (-1 if it does not apply).
+     */
+    public enum Event {
+        PLACE_CARD,   // -, slot, card
+        REMOVE_CARD,  // -, slot, card
+        PLACE_TOKEN,  // player, slot, -
+        REMOVE_TOKEN, // player, slot, -
+        CLAIM,        // player, -, -
+        POINT,        // player, -, the new score
+        PENALTY,      // player, -, the freeze in milliseconds
+        RESHUFFLE,    // -, -, -
+        WINNER        // player, -, the score
+    }
+
+    private static final Event[] events = Event.values();
+
+    public static final int MAGIC = 0x5345544A; // "SETJ"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 24;
+
+    /**
+     * A journal that records nothing.
+     */
+    public static final Journal DISABLED = new Journal(null, 0, 0);
+
+    /**
+     * The mapped file (null if disabled) and the number of records it holds.
+     */
+    private final MappedByteBuffer buffer;
+    private final long capacity;
+
+    /**
+     * The System.nanoTime of the opening of the journal.
+     */
+    private final long startNanos;
+
+    /**
+     * The index of the next record.
+     */
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * The number of events dropped because the journal was full.
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    private Journal(MappedByteBuffer buffer, long capacity, long startNanos) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Opens the journal configured by config.journalFile, replacing an existing file.
+     *
+     * @param config - the game configuration.
+     * @param logger - the logger to report errors to.
+     * @return - the journal, or DISABLED if no journal is configured or the file cannot be created.
+     */
+    public static Journal open(Config config, Logger logger) {
+        if (config.journalFile.isEmpty()) return DISABLED;
+        long capacity = Math.min(config.journalCapacity, (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE);
+        try (FileChannel channel = FileChannel.open(Paths.get(config.journalFile), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity * RECORD_SIZE);
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, VERSION);
+            buffer.putShort(6, (short) RECORD_SIZE);
+            buffer.putLong(8, System.currentTimeMillis());
+            return new Journal(buffer, capacity, System.nanoTime());
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.severe("cannot open journal file " + config.journalFile + ": " + e);
+            return DISABLED;
+        }
+    }
+
+    /**
+     * Records an event.
+     *
+     * @param event  - the event.
+     * @param player - the player of the event (-1 if none).
+     * @param slot   - the slot of the event (-1 if none).
+     * @param value  - the value of the event (see Event).
+     */
+    public void record(Event event, int player, int slot, long value) {
+        if (buffer == null) return;
+        long index = next.getAndIncrement();
+        if (index >= capacity) {
+            dropped.increment();
+            return;
+        }
+        int offset = (int) (HEADER_SIZE + index * RECORD_SIZE);
+        buffer.putLong(offset, System.nanoTime() - startNanos);
+        buffer.putShort(offset + 10, (short) player);
+        buffer.putInt(offset + 12, slot);
+        buffer.putLong(offset + 16, value);
+        // the event goes last: a record with no event ends the journal
+        buffer.put(offset + 8, (byte) (event.ordinal() + 1));
+    }
+
+    /**
+     * @return - true iff the journal records the events.
+     */
+    public boolean enabled() {
+        return buffer != null;
+    }
+
+    /**
+     * @return - the number of events dropped because the journal was full.
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes the journal to the disk.
+     */
+    @Override
+    public void close() {
+        if (buffer != null) buffer.force();
+    }
+
+    /**
+     * A journaled event, as read from the file.
+     */
+    public static class Entry {
+        public final long nanos;
+        public final Event event;
+        public final int player;
+        public final int slot;
+        public final long value;
+
+        Entry(long nanos, Event event, int player, int slot, long value) {
+            this.nanos = nanos;
+            this.event = event;
+            this.player = player;
+            this.slot = slot;
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.6f %s player %d slot %d value %d", nanos / 1e9, event, player, slot, value);
+        }
+    }
+
+    /**
+     * Reads a journal file.
+     *
+     * @param file - the journal file.
+     * @return - the journaled events, in the order they were recorded.
+     * @throws IOException - if the file cannot be read or is not a journal.
+     */
+    public static List<Entry> read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION)
+            throw new IOException(file + " is not a game journal");
+        int recordSize = buffer.getShort(6);
+
+        List<Entry> entries = new ArrayList<>();
+        for (int offset = HEADER_SIZE; offset + recordSize <= buffer.limit(); offset += recordSize) {
+            int event = buffer.get(offset + 8);
+            if (event <= 0 || event > events.length) break;
+            entries.add(new Entry(buffer.getLong(offset), events[event - 1], buffer.getShort(offset + 10),
+                    buffer.getInt(offset + 12), buffer.getLong(offset + 16)));
+        }
+        return entries;
+    }
+}
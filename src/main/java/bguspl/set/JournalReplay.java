@@ -0,0 +1,111 @@
+package bguspl.set;
+
+import bguspl.set.ex.Player;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class replays a game journal (see Journal) on the user interface. With no graphics available, the replayed
+ * events are logged to the console instead.
+ * Usage: JournalReplay journal-file [speed] [configuration file]
+ * The speed is relative to the original game (2 replays twice as fast); 0 replays without waiting. The configuration
+ * must match the one the game was played with.
+ */
+public class JournalReplay {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        if (args.length < 1) {
+            System.out.println("usage: JournalReplay journal-file [speed] [configuration file]");
+            return;
+        }
+        List<Journal.Entry> entries = Journal.read(Paths.get(args[0]));
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        String configFilename = args.length > 2 ? args[2] : "config.properties";
+
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        ConsoleHandler handler = new ConsoleHandler();
+        handler.setLevel(Level.ALL);
+        logger.addHandler(handler);
+        Config config = new Config(logger, configFilename);
+        // the replayed events are logged whatever the log level of the game was
+        logger.setLevel(Level.ALL);
+        Util util = new UtilImpl(config);
+        UserInterface ui = null;
+        try {
+            ui = new UserInterfaceSwing(logger, config, util, new Player[config.players]);
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            logger.severe("error creating swing user interface: " + e.getMessage());
+        }
+        ui = new UserInterfaceDecorator(logger, util, ui);
+
+        replay(entries, speed, ui, logger);
+        if (config.endGamePauseMillies > 0) Thread.sleep(config.endGamePauseMillies);
+        ui.dispose();
+    }
+
+    /**
+     * Re-drives the user interface with the journaled events.
+     *
+     * @param entries - the journaled events.
+     * @param speed   - the speed of the replay relative to the original game (0 for no waiting).
+     * @param ui      - the user interface.
+     * @param logger  - the logger for the events that the user interface does not show.
+     */
+    public static void replay(List<Journal.Entry> entries, double speed, UserInterface ui, Logger logger)
+            throws InterruptedException {
+
+        List<Integer> winners = new ArrayList<>();
+        // the players shown as frozen, until they play again
+        Set<Integer> frozen = new HashSet<>();
+        long startNanos = System.nanoTime();
+        for (Journal.Entry entry : entries) {
+            if (speed > 0) {
+                long wait = (long) (entry.nanos / speed) - (System.nanoTime() - startNanos);
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            switch (entry.event) {
+                case PLACE_CARD:
+                    ui.placeCard((int) entry.value, entry.slot);
+                    break;
+                case REMOVE_CARD:
+                    ui.removeCard(entry.slot);
+                    break;
+                case PLACE_TOKEN:
+                    if (frozen.remove(entry.player)) ui.setFreeze(entry.player, 0);
+                    ui.placeToken(entry.player, entry.slot);
+                    break;
+                case REMOVE_TOKEN:
+                    ui.removeToken(entry.player, entry.slot);
+                    break;
+                case CLAIM:
+                    logger.severe("player " + (entry.player + 1) + " claims a set");
+                    break;
+                case POINT:
+                    ui.setScore(entry.player, (int) entry.value);
+                    break;
+                case PENALTY:
+                    ui.setFreeze(entry.player, entry.value);
+                    frozen.add(entry.player);
+                    break;
+                case RESHUFFLE:
+                    logger.severe("reshuffling");
+                    break;
+                case WINNER:
+                    winners.add(entry.player);
+                    break;
+            }
+        }
+        if (!winners.isEmpty()) ui.announceWinner(winners.stream().mapToInt(Integer::intValue).toArray());
+    }
+}
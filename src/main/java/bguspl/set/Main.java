@@ -1,8 +1,6 @@
 package bguspl.set;
 
-import bguspl.set.ex.Dealer;
 import bguspl.set.ex.Player;
-import bguspl.set.ex.Table;
 
 import java.io.File;
 import java.io.IOException;
@@ -17,16 +15,21 @@ import java.util.logging.*;
  */
 public class Main {
 
-    private static Dealer dealer;
+    private static Game game;
     private static Thread mainThread;
 
+    /**
+     * The number of log records waiting to be written before new ones are dropped.
+     */
+    private static final int LOG_BUFFER_CAPACITY = 1 << 14;
+
     private static boolean xButtonPressed = false;
     private static Logger logger;
 
     public static void xButtonPressed() throws InterruptedException {
         if (logger != null) logger.severe("exit button pressed");
         xButtonPressed = true;
-        if (dealer != null) dealer.terminate();
+        if (game != null) game.terminate();
         mainThread.join();
     }
 
@@ -48,7 +51,7 @@ public class Main {
         Player[] players = new Player[config.players];
         UserInterface ui = null;
         try {
-            ui = new UserInterfaceSwing(logger, config, players);
+            ui = new UserInterfaceSwing(logger, config, util, players);
         } catch (UnsupportedOperationException | IllegalArgumentException e) {
             logger.severe("error creating swing user interface: " + e.getMessage());
             logger.severe("will try to run without user interface");
@@ -57,16 +60,13 @@ public class Main {
         }
         ui = new UserInterfaceDecorator(logger, util, ui);
 
-        Env env = new Env(logger, config, ui, util);
+        Env env = new Env(logger, config, ui, util, Journal.open(config, logger));
 
         // create the game entities
-        Table table = new Table(env);
-        dealer = new Dealer(env, table, players);
-        for (int i = 0; i < players.length; i++)
-            players[i] = new Player(env, dealer, table, i, i < env.config.humanPlayers);
+        game = new Game(0, env, players);
 
         // start the dealer thread
-        ThreadLogger dealerThread = new ThreadLogger(dealer, "dealer", logger);
+        ThreadLogger dealerThread = new ThreadLogger(game, "dealer", logger);
         dealerThread.startWithLog();
 
         try {
@@ -79,6 +79,8 @@ public class Main {
             System.out.println("Thanks for playing... it was fun!");
             ThreadLogger.logStop(logger, Thread.currentThread().getName());
             if (!xButtonPressed) env.ui.dispose();
+            env.journal.close();
+            if (env.journal.dropped() > 0) logger.severe("the journal was full, dropped " + env.journal.dropped() + " events");
             for (Handler h : logger.getHandlers()) h.flush();
         }
     }
@@ -87,11 +89,14 @@ public class Main {
 
         //just to make our log file nicer :)
         SimpleDateFormat format = new SimpleDateFormat("M-d_HH-mm-ss");
-        FileHandler handler;
+        Handler handler;
         try {
             //noinspection ResultOfMethodCallIgnored
             new File("./logs/").mkdirs();
-            handler = new FileHandler("./logs/" + format.format(Calendar.getInstance().getTime()) + ".log");
+            // the game threads only hand the records over, they are formatted and written on a separate thread
+            handler = new AsyncLogHandler(
+                    new FileHandler("./logs/" + format.format(Calendar.getInstance().getTime()) + ".log"),
+                    LOG_BUFFER_CAPACITY);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -111,7 +116,7 @@ public class Main {
             @Override
             public synchronized String format(LogRecord lr) {
                 return String.format(format, new Date(lr.getMillis()),
-                        lr.getLevel().getLocalizedName(), lr.getMessage()
+                        lr.getLevel().getLocalizedName(), formatMessage(lr)
                 );
             }
         }));
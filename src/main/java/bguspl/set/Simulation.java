@@ -0,0 +1,75 @@
+package bguspl.set;
+
+import bguspl.set.ex.GameMetrics;
+import bguspl.set.ex.Histogram;
+
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class runs complete games back-to-back with computer players only, no user interface and no table delays, and
+ * reports how fast they were played.
+ * Usage: Simulation [number of games] [configuration file] [number of games played at the same time]
+ */
+public class Simulation {
+
+    /**
+     * The configuration settings that are overridden for the simulation.
+     */
+    private static final String[][] overrides = {
+            {"TableDelaySeconds", "0"},
+            {"EndGamePauseSeconds", "0"},
+            {"Hints", "False"},
+            {"LogLevel", Level.OFF.getName()}};
+
+    public static void main(String[] args) throws InterruptedException {
+
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String configFilename = args.length > 1 ? args[1] : "config.properties";
+        int runningGames = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        Logger logger = Logger.getAnonymousLogger();
+        Properties properties = Config.loadProperties(configFilename, logger);
+        logger.setUseParentHandlers(false);
+        Config config = new Config(logger, simulationProperties(properties));
+
+        long start = System.nanoTime();
+        GameHost host = new GameHost(logger, config, runningGames);
+        for (int game = 0; game < games; game++)
+            host.submit();
+        host.shutdown();
+        host.awaitTermination(Long.MAX_VALUE);
+
+        long sets = 0, claims = 0;
+        Histogram claimLatency = new Histogram();
+        for (Game game : host.games()) {
+            GameMetrics metrics = game.metrics();
+            sets += metrics.sets.sum();
+            claims += metrics.claims.sum();
+            claimLatency.add(metrics.claimLatency);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("games:  %d in %.2f seconds (%.2f games per second)%n", games, seconds, games / seconds);
+        System.out.printf("sets:   %d (%.2f sets per second)%n", sets, sets / seconds);
+        System.out.printf("claims: %d, claim latency (us): p50 %.1f p90 %.1f p99 %.1f max %.1f%n", claims,
+                claimLatency.percentile(50) / 1e3, claimLatency.percentile(90) / 1e3,
+                claimLatency.percentile(99) / 1e3, claimLatency.max() / 1e3);
+    }
+
+    /**
+     * Turns all players into computer players and removes the delays.
+     */
+    private static Properties simulationProperties(Properties properties) {
+        Properties simulation = new Properties();
+        simulation.putAll(properties);
+        int humanPlayers = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
+        int computerPlayers = Integer.parseInt(properties.getProperty("ComputerPlayers", "2"));
+        simulation.put("HumanPlayers", "0");
+        simulation.put("ComputerPlayers", Integer.toString(humanPlayers + computerPlayers));
+        for (String[] override : overrides)
+            simulation.put(override[0], override[1]);
+        return simulation;
+    }
+}
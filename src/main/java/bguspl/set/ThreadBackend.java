@@ -0,0 +1,61 @@
+package bguspl.set;
+
+import java.lang.reflect.Method;
+
+/**
+ * This class creates the threads of the players (and of the computer players). These are virtual threads when
+ * config.virtualThreads is set, or platform threads otherwise. Virtual threads are looked up reflectively, since the
+ * game is built for Java 8 and they only exist on newer JDKs.
+ */
+public class ThreadBackend {
+
+    /**
+     * Thread.ofVirtual(), Thread.Builder.name(String) and Thread.Builder.unstarted(Runnable) (null if unsupported).
+     */
+    private static final Method ofVirtual;
+    private static final Method name;
+    private static final Method unstarted;
+
+    static {
+        Method ofVirtualMethod = null, nameMethod = null, unstartedMethod = null;
+        try {
+            ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            nameMethod = builder.getMethod("name", String.class);
+            unstartedMethod = builder.getMethod("unstarted", Runnable.class);
+            // preview builds of the API may be present but refuse to run
+            unstartedMethod.invoke(ofVirtualMethod.invoke(null), (Runnable) () -> {});
+        } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+            ofVirtualMethod = null;
+        }
+        ofVirtual = ofVirtualMethod;
+        name = nameMethod;
+        unstarted = unstartedMethod;
+    }
+
+    /**
+     * @return - true iff the running JVM can create virtual threads.
+     */
+    public static boolean virtualThreadsSupported() {
+        return ofVirtual != null;
+    }
+
+    /**
+     * Creates a thread (not started yet) on the configured execution backend.
+     *
+     * @param config - the game configuration.
+     * @param task   - the task the thread runs.
+     * @param name   - the name of the thread.
+     * @return - the new thread.
+     */
+    public static Thread newThread(Config config, Runnable task, String name) {
+        if (config.virtualThreads && ofVirtual != null) {
+            try {
+                return (Thread) unstarted.invoke(ThreadBackend.name.invoke(ofVirtual.invoke(null), name), task);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("cannot create a virtual thread", e);
+            }
+        }
+        return new Thread(task, name);
+    }
+}
@@ -18,6 +18,31 @@ public interface UserInterface {
      */
     void removeCard(int slot);
 
+    /**
+     * Draw a batch of cards that were placed on the table at once. The cards may be dealt one after the other, but
+     * the call itself does not wait for it.
+     * @param cards - the card ids.
+     * @param slots - the slot numbers (respectively).
+     */
+    default void placeCards(int[] cards, int[] slots) {
+        for (int i = 0; i < cards.length; i++)
+            placeCard(cards[i], slots[i]);
+    }
+
+    /**
+     * Remove all player names text from the specified slots, and draw the given cards in them, at once (the cards
+     * may be dealt one after the other, as in placeCards).
+     * @param cards - the card ids, or a negative number for an empty card image.
+     * @param slots - the slot numbers (respectively).
+     */
+    default void replaceCards(int[] cards, int[] slots) {
+        for (int i = 0; i < cards.length; i++) {
+            removeTokens(slots[i]);
+            if (cards[i] < 0) removeCard(slots[i]);
+            else placeCard(cards[i], slots[i]);
+        }
+    }
+
     /**
      * Draw a player name text in the specified slot.
      * @param player - the card id.
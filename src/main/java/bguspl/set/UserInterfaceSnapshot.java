@@ -0,0 +1,247 @@
+package bguspl.set;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * This class collects the changes the game threads make to the display, without locks, until the UI thread applies
+ * them. It holds the latest state of every cell, player and the timer, and marks the ones that changed since the
+ * last frame as dirty, so that many changes to the same cell between two frames are drawn once.
+ * Every change returns whether it is the first one since the last frame, i.e. whether a frame needs to be scheduled.
+ * A card can be dealt with a reveal time: it is in the state right away, but is shown only from that time on.
+ */
+class UserInterfaceSnapshot {
+
+    /**
+     * The card displayed in a slot when there is none.
+     */
+    static final int NO_CARD = -1;
+
+    /**
+     * The kinds of timer display (kept in the two low bits of the timer state).
+     */
+    static final int COUNTDOWN = 0;
+    static final int WARNING = 1;
+    static final int ELAPSED = 2;
+
+    private final int tableSize;
+
+    /**
+     * The number of longs in the token bitset of each slot.
+     */
+    private final int tokenWords;
+
+    private final AtomicIntegerArray cards;
+
+    /**
+     * The time (System.nanoTime) from which the card in each slot is shown, or 0 if it is shown right away.
+     */
+    private final AtomicLongArray reveals;
+    private final AtomicLongArray tokens;
+    private final AtomicLongArray freezes;
+    private final AtomicIntegerArray scores;
+    private final AtomicLong timer = new AtomicLong();
+
+    /**
+     * The slots and players that changed since the last frame (bitsets), and whether the timer did.
+     */
+    private final AtomicLongArray dirtySlots;
+    private final AtomicLongArray dirtyPlayers;
+    private final AtomicBoolean dirtyTimer = new AtomicBoolean();
+
+    /**
+     * True iff a frame is scheduled and did not start yet.
+     */
+    private final AtomicBoolean frameRequested = new AtomicBoolean();
+
+    UserInterfaceSnapshot(int tableSize, int players) {
+        this.tableSize = tableSize;
+        tokenWords = (players + 63) / 64;
+        cards = new AtomicIntegerArray(tableSize);
+        for (int slot = 0; slot < tableSize; slot++)
+            cards.set(slot, NO_CARD);
+        reveals = new AtomicLongArray(tableSize);
+        tokens = new AtomicLongArray(tableSize * tokenWords);
+        freezes = new AtomicLongArray(players);
+        scores = new AtomicIntegerArray(players);
+        dirtySlots = new AtomicLongArray((tableSize + 63) / 64);
+        dirtyPlayers = new AtomicLongArray(tokenWords);
+    }
+
+    boolean placeCard(int slot, int card) {
+        return dealCard(slot, card, 0);
+    }
+
+    /**
+     * Places a card that is shown only from a given time on.
+     *
+     * @param revealNanos - the time (System.nanoTime) from which the card is shown.
+     */
+    boolean dealCard(int slot, int card, long revealNanos) {
+        reveals.set(slot, revealNanos);
+        cards.set(slot, card);
+        return slotChanged(slot);
+    }
+
+    boolean removeCard(int slot) {
+        reveals.set(slot, 0);
+        cards.set(slot, NO_CARD);
+        return slotChanged(slot);
+    }
+
+    /**
+     * Marks a slot as changed again, so that the next frame looks at it too (e.g. when its card is not shown yet).
+     */
+    boolean touchSlot(int slot) {
+        return slotChanged(slot);
+    }
+
+    boolean placeToken(int player, int slot) {
+        long bit = 1L << player;
+        tokens.getAndAccumulate(slot * tokenWords + player / 64, bit, (word, b) -> word | b);
+        return slotChanged(slot);
+    }
+
+    boolean removeToken(int player, int slot) {
+        long bit = 1L << player;
+        tokens.getAndAccumulate(slot * tokenWords + player / 64, bit, (word, b) -> word & ~b);
+        return slotChanged(slot);
+    }
+
+    boolean removeTokens(int slot) {
+        for (int word = 0; word < tokenWords; word++)
+            tokens.set(slot * tokenWords + word, 0);
+        return slotChanged(slot);
+    }
+
+    boolean removeTokens() {
+        boolean first = false;
+        for (int slot = 0; slot < tableSize; slot++)
+            first |= removeTokens(slot);
+        return first;
+    }
+
+    boolean setCountdown(long millies, boolean warn) {
+        timer.set(millies << 2 | (warn ? WARNING : COUNTDOWN));
+        dirtyTimer.set(true);
+        return frameNeeded();
+    }
+
+    boolean setElapsed(long millies) {
+        timer.set(millies << 2 | ELAPSED);
+        dirtyTimer.set(true);
+        return frameNeeded();
+    }
+
+    boolean setFreeze(int player, long millies) {
+        freezes.set(player, millies);
+        return playerChanged(player);
+    }
+
+    boolean setScore(int player, int score) {
+        scores.set(player, score);
+        return playerChanged(player);
+    }
+
+    /**
+     * Starts a frame: the changes made from now on will request the next one.
+     */
+    void startFrame() {
+        frameRequested.set(false);
+    }
+
+    /**
+     * Calls the action for every slot that changed since the last call, and clears its mark.
+     */
+    void forEachDirtySlot(IntConsumer action) {
+        forEachDirty(dirtySlots, action);
+    }
+
+    /**
+     * Calls the action for every player whose freeze or score changed since the last call, and clears its mark.
+     */
+    void forEachDirtyPlayer(IntConsumer action) {
+        forEachDirty(dirtyPlayers, action);
+    }
+
+    /**
+     * @return - true iff the timer changed since the last call.
+     */
+    boolean takeDirtyTimer() {
+        return dirtyTimer.getAndSet(false);
+    }
+
+    int card(int slot) {
+        return cards.get(slot);
+    }
+
+    /**
+     * @param slot - the slot.
+     * @param now  - the current time (System.nanoTime).
+     * @return - true iff the card in the slot is shown at the given time.
+     */
+    boolean revealed(int slot, long now) {
+        long reveal = reveals.get(slot);
+        return reveal == 0 || now - reveal >= 0;
+    }
+
+    boolean hasToken(int player, int slot) {
+        return (tokens.get(slot * tokenWords + player / 64) & 1L << player) != 0;
+    }
+
+    long freeze(int player) {
+        return freezes.get(player);
+    }
+
+    int score(int player) {
+        return scores.get(player);
+    }
+
+    /**
+     * @return - the state of the timer display: the time and its kind, read together (see timerMillies and
+     * timerKind).
+     */
+    long timer() {
+        return timer.get();
+    }
+
+    /**
+     * @param timer - a state of the timer display.
+     * @return - the displayed time, in milliseconds.
+     */
+    static long timerMillies(long timer) {
+        return timer >> 2;
+    }
+
+    /**
+     * @param timer - a state of the timer display.
+     * @return - the kind of timer display: COUNTDOWN, WARNING or ELAPSED.
+     */
+    static int timerKind(long timer) {
+        return (int) (timer & 3);
+    }
+
+    private boolean slotChanged(int slot) {
+        dirtySlots.getAndAccumulate(slot / 64, 1L << slot, (word, bit) -> word | bit);
+        return frameNeeded();
+    }
+
+    private boolean playerChanged(int player) {
+        dirtyPlayers.getAndAccumulate(player / 64, 1L << player, (word, bit) -> word | bit);
+        return frameNeeded();
+    }
+
+    private boolean frameNeeded() {
+        return !frameRequested.get() && frameRequested.compareAndSet(false, true);
+    }
+
+    private static void forEachDirty(AtomicLongArray dirty, IntConsumer action) {
+        for (int word = 0; word < dirty.length(); word++) {
+            for (long bits = dirty.getAndSet(word, 0); bits != 0; bits &= bits - 1)
+                action.accept(word * 64 + Long.numberOfTrailingZeros(bits));
+        }
+    }
+}
@@ -4,8 +4,6 @@ import bguspl.set.ex.Player;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.FileNotFoundException;
-import java.net.URL;
 import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Logger;
@@ -15,6 +13,9 @@ import static java.lang.String.format;
 
 /**
  * Java Swing implementation of the UserInterface interface.
+ * The game threads do not touch the Swing components: their changes go to a lock-free snapshot, and a Swing timer
+ * applies them on the event dispatch thread at most once per frame, repainting only the cells that changed.
+ * A batch of cards placed at once is dealt one card every config.tableDelayMillis, while the game goes on.
  */
 public class UserInterfaceSwing extends JFrame implements UserInterface {
 
@@ -23,16 +24,21 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
     private final PlayersPanel playersPanel;
     private final WinnerPanel winnerPanel;
     private final Config config;
+    private final UserInterfaceSnapshot snapshot;
+    private final Timer frameTimer;
 
     static String intInBaseToPaddedString(int n, int padding, int base) {
         return format("%" + padding + "s", Integer.toString(n, base)).replace(' ', '0');
     }
 
-    public UserInterfaceSwing(Logger logger, Config config, Player[] players) {
+    public UserInterfaceSwing(Logger logger, Config config, Util util, Player[] players) {
 
         this.config = config;
+        snapshot = new UserInterfaceSnapshot(config.tableSize, config.players);
+        frameTimer = new Timer(1000 / Math.max(config.framesPerSecond, 1), e -> applyFrame());
+        frameTimer.setRepeats(false);
         timerPanel = new TimerPanel();
-        gamePanel = new GamePanel();
+        gamePanel = new GamePanel(logger, util);
         playersPanel = new PlayersPanel();
         winnerPanel = new WinnerPanel();
 
@@ -69,6 +75,32 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
         EventQueue.invokeLater(() -> setVisible(true));
     }
 
+    /**
+     * Schedules a frame, when a change is the first one since the last frame.
+     *
+     * @param first - true iff the change is the first one since the last frame.
+     */
+    private void requestFrame(boolean first) {
+        if (first) frameTimer.start();
+    }
+
+    /**
+     * Applies the changes made since the last frame (called on the event dispatch thread).
+     */
+    private void applyFrame() {
+        snapshot.startFrame();
+        long now = System.nanoTime();
+        snapshot.forEachDirtySlot(slot -> gamePanel.updateSlot(slot, now));
+        snapshot.forEachDirtyPlayer(playersPanel::updatePlayer);
+        if (snapshot.takeDirtyTimer()) {
+            long timer = snapshot.timer();
+            long millies = UserInterfaceSnapshot.timerMillies(timer);
+            int kind = UserInterfaceSnapshot.timerKind(timer);
+            if (kind == UserInterfaceSnapshot.ELAPSED) timerPanel.setElapsed(millies);
+            else timerPanel.setCountdown(millies, kind == UserInterfaceSnapshot.WARNING);
+        }
+    }
+
     private class TimerPanel extends JPanel {
 
         private final JLabel timerField;
@@ -102,39 +134,23 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
 
     private class GamePanel extends JLayeredPane {
 
-        private final Image emptyCard;
-        private final Image[] deck;
-        private final Image[][] grid;
-        private final boolean[][][] playerTokens;
+        private final CardAtlas atlas;
+        private final int[][] grid;
         private final JLabel[][] tokenText;
 
-        private Image loadImageResource(String filename) {
-            URL imageResource = getClass().getClassLoader().getResource(filename);
-            if (imageResource == null)
-                throw new RuntimeException(new FileNotFoundException(filename));
-            return new ImageIcon(imageResource).getImage();
-        }
-
-        private GamePanel() {
+        private GamePanel(Logger logger, Util util) {
 
             setPreferredSize(new Dimension(config.columns * config.cellWidth, config.rows * config.cellHeight));
 
-            // init deck and load all pictures from png files
-            assert config.featureSize < 10; // otherwise there will be naming conflicts
+            // the card images are decoded when they are first drawn
+            atlas = new CardAtlas(logger, config, util);
 
-            // load the image resources
-            deck = new Image[config.deckSize];
-            for (int i = 0; i < config.deckSize; ++i)
-                deck[i] = loadImageResource("cards/" + intInBaseToPaddedString(i, config.featureCount, config.featureSize) + ".png");
-            emptyCard = loadImageResource("cards/empty_card.png");
-
-            grid = new Image[config.rows][config.columns];
+            grid = new int[config.rows][config.columns];
             tokenText = new JLabel[config.rows][config.columns];
-            playerTokens = new boolean[config.players][config.rows][config.columns];
             for (int row = 0; row < config.rows; row++) {
                 for (int column = 0; column < config.columns; column++) {
                     // init the cards on the table grid as empty cards
-                    grid[row][column] = emptyCard;
+                    grid[row][column] = UserInterfaceSnapshot.NO_CARD;
 
                     // init the JLabel selection overlay
                     tokenText[row][column] = new JLabel("");
@@ -148,54 +164,24 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
             }
         }
 
-        private void placeCard(int slot, int card) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            grid[row][column] = deck[card];
-            validate();
-            repaint();
-        }
-
-        private void removeCard(int slot) {
+        private void updateSlot(int slot, long now) {
             int row = slot / config.columns;
             int column = slot % config.columns;
-            grid[row][column] = emptyCard;
-            validate();
-            repaint();
-        }
-
-        private void placeToken(int player, int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            playerTokens[player][row][column] = true;
-            tokenText[row][column].setText(generatePlayersTokenText(row, column));
-        }
-
-        private void removeTokens() {
-            for (int i = 0; i < config.tableSize; i++)
-                removeTokens(i);
-        }
-
-        private void removeTokens(int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            for (int player = 0; player < playerTokens.length; player++) {
-                playerTokens[player][row][column] = false;
-                tokenText[row][column].setText(generatePlayersTokenText(row, column));
+            int card = UserInterfaceSnapshot.NO_CARD;
+            if (snapshot.revealed(slot, now)) card = snapshot.card(slot);
+            // the card is not dealt yet: look at the slot again in the next frame
+            else requestFrame(snapshot.touchSlot(slot));
+            if (grid[row][column] != card) {
+                grid[row][column] = card;
+                repaint(column * config.cellWidth, row * config.cellHeight, config.cellWidth, config.cellHeight);
             }
+            tokenText[row][column].setText(generatePlayersTokenText(slot));
         }
 
-        private void removeToken(int player, int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            playerTokens[player][row][column] = false;
-            tokenText[row][column].setText(generatePlayersTokenText(row, column));
-        }
-
-        private String generatePlayersTokenText(int row, int column) {
+        private String generatePlayersTokenText(int slot) {
             String text = "";
             for (int player = 0; player < config.players; player++) {
-                if (playerTokens[player][row][column])
+                if (snapshot.hasToken(player, slot))
                     text = text.concat(config.playerNames[player] + ", ");
             }
             if (text.length() < 2)
@@ -205,10 +191,12 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
 
         @Override
         public void paintComponent(Graphics g) {
-            // draw card images
+            // draw the card images of the cells to repaint
+            Rectangle clip = g.getClipBounds();
             for (int row = 0; row < config.rows; row++)
                 for (int column = 0; column < config.columns; column++)
-                    g.drawImage(grid[row][column], (column * config.cellWidth), (row * config.cellHeight), this);
+                    if (clip == null || clip.intersects(column * config.cellWidth, row * config.cellHeight, config.cellWidth, config.cellHeight))
+                        atlas.draw(g, grid[row][column], column * config.cellWidth, row * config.cellHeight);
         }
     }
 
@@ -235,6 +223,11 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
             }
         }
 
+        private void updatePlayer(int player) {
+            setFreeze(player, snapshot.freeze(player));
+            setScore(player, snapshot.score(player));
+        }
+
         private void setFreeze(int player, long millies) {
             if (millies > 0) {
                 this.playersTable[0][player].setText(config.playerNames[player] + " (" + millies / 1000 + ")");
@@ -276,63 +269,85 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
 
     @Override
     public void placeCard(int card, int slot) {
-        gamePanel.placeCard(slot, card);
+        requestFrame(snapshot.placeCard(slot, card));
     }
 
     @Override
     public void removeCard(int slot) {
-        gamePanel.removeCard(slot);
+        requestFrame(snapshot.removeCard(slot));
+    }
+
+    @Override
+    public void placeCards(int[] cards, int[] slots) {
+        replaceCards(cards, slots);
+    }
+
+    @Override
+    public void replaceCards(int[] cards, int[] slots) {
+        long now = System.nanoTime();
+        boolean first = false;
+        int dealt = 0;
+        for (int i = 0; i < cards.length; i++) {
+            first |= snapshot.removeTokens(slots[i]);
+            if (cards[i] < 0) first |= snapshot.removeCard(slots[i]);
+            else first |= snapshot.dealCard(slots[i], cards[i], now + dealt++ * config.tableDelayMillis * 1_000_000L);
+        }
+        requestFrame(first);
     }
 
     @Override
     public void placeToken(int player, int slot) {
-        gamePanel.placeToken(player, slot);
+        requestFrame(snapshot.placeToken(player, slot));
     }
 
     @Override
     public void removeTokens() {
-        gamePanel.removeTokens();
+        requestFrame(snapshot.removeTokens());
     }
 
     @Override
     public void removeTokens(int slot) {
-        gamePanel.removeTokens(slot);
+        requestFrame(snapshot.removeTokens(slot));
     }
 
     @Override
     public void removeToken(int player, int slot) {
-        gamePanel.removeToken(player, slot);
+        requestFrame(snapshot.removeToken(player, slot));
     }
 
     @Override
     public void setCountdown(long millies, boolean warn) {
-        timerPanel.setCountdown(millies, warn);
+        requestFrame(snapshot.setCountdown(millies, warn));
     }
 
     @Override
     public void setElapsed(long millies) {
-        timerPanel.setElapsed(millies);
+        requestFrame(snapshot.setElapsed(millies));
     }
 
     @Override
     public void setFreeze(int player, long millies) {
-        playersPanel.setFreeze(player, millies);
+        requestFrame(snapshot.setFreeze(player, millies));
     }
 
     @Override
     public void setScore(int player, int score) {
-        playersPanel.setScore(player, score);
+        requestFrame(snapshot.setScore(player, score));
     }
 
     @Override
     public void announceWinner(int[] players) {
-        playersPanel.setVisible(false);
-        winnerPanel.announceWinner(players);
-        winnerPanel.setVisible(true);
+        EventQueue.invokeLater(() -> {
+            applyFrame();
+            playersPanel.setVisible(false);
+            winnerPanel.announceWinner(players);
+            winnerPanel.setVisible(true);
+        });
     }
 
     @Override
     public void dispose() {
+        frameTimer.stop();
         super.dispose();
     }
 }
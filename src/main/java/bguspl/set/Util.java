@@ -40,6 +40,43 @@ public interface Util {
      */
     List<int[]> findSets(List<Integer> deck, int count);
 
+    /**
+     * Finds and returns up to count sets in the given collection of cards. Large searches are split across threads.
+     *
+     * @param deck    - a collection of cards (may not include null objects).
+     * @param count   - the maximum number of sets to find.
+     * @param ordered - true iff the sets must be found in the same order every time (a parallel search then stops
+     *                later, when count is smaller than the number of sets in the collection).
+     * @return - a list of up to count integer arrays, each one contains the card ids of a legal set.
+     */
+    default List<int[]> findSets(List<Integer> deck, int count, boolean ordered) {
+        return findSets(deck, count);
+    }
+
+    /**
+     * Finds and returns up to count sets made of the given card and cards from the given collection.
+     *
+     * @param card  - the card that every set must contain.
+     * @param deck  - a collection of cards (may not include null objects or the card itself).
+     * @param count - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the (sorted) card ids of a legal set.
+     */
+    List<int[]> findSetsWith(int card, List<Integer> deck, int count);
+
+    /**
+     * Finds and returns up to count sets made of the given card and cards from the given collection, which is also
+     * given as a bitmap (so that it does not need to be built again for every search).
+     *
+     * @param card    - the card that every set must contain.
+     * @param deck    - a collection of cards (may not include null objects or the card itself).
+     * @param members - the bitmap of the collection: card c is in it iff bit c % 64 of word c / 64 is set.
+     * @param count   - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the (sorted) card ids of a legal set.
+     */
+    default List<int[]> findSetsWith(int card, List<Integer> deck, long[] members, int count) {
+        return findSetsWith(card, deck, count);
+    }
+
     /**
      * Spin a random number of times (for debugging/testing).
      */
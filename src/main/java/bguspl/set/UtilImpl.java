@@ -1,98 +1,492 @@
 package bguspl.set;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.IntStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The implementation of the UserInterface interface.
  */
 public class UtilImpl implements Util {
 
+    /**
+     * The number of combinations (or pairs) to examine from which a search is split across the fork-join pool.
+     * Below it, the search is faster on the calling thread.
+     */
+    static final long PARALLEL_THRESHOLD = 1 << 16;
+
     private final Config config;
 
+    /**
+     * The features of every card in the deck, card after card (card * featureCount + feature).
+     */
+    private final int[] features;
+
+    /**
+     * The features of every card packed into a bitmask holding one bit per (feature, value) pair, i.e. bit
+     * feature * featureSize + value. Null when featureCount * featureSize does not fit in a long.
+     */
+    private final long[] featureMasks;
+
+    /**
+     * A mask of the bits of a single feature in featureMasks.
+     */
+    private final long featureMask;
+
+    /**
+     * The value of each feature's digit in a card id (featureSize ^ (featureCount - 1 - feature)).
+     */
+    private final int[] featureWeights;
+
+    /**
+     * The pool large searches are split across.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The random stream of each thread that spins, split off a stream seeded by Config::randomSeed.
+     */
+    private final SplittableRandom spinRandom;
+    private final ThreadLocal<SplittableRandom> spinRandoms;
+
     public UtilImpl(Config config) {
+        this(config, ForkJoinPool.commonPool());
+    }
+
+    UtilImpl(Config config, ForkJoinPool pool) {
         this.config = config;
+        this.pool = pool;
+        spinRandom = config.randomSeed == null ? new SplittableRandom() : new SplittableRandom(config.randomSeed);
+        spinRandoms = ThreadLocal.withInitial(() -> {
+            synchronized (spinRandom) {
+                return spinRandom.split();
+            }
+        });
+
+        featureWeights = new int[config.featureCount];
+        for (int i = config.featureCount - 1, weight = 1; i >= 0; --i, weight *= config.featureSize)
+            featureWeights[i] = weight;
+
+        features = new int[config.deckSize * config.featureCount];
+        for (int card = 0; card < config.deckSize; ++card)
+            cardToFeatures(card, features, card * config.featureCount);
+
+        if (config.featureCount * config.featureSize <= Long.SIZE) {
+            featureMasks = new long[config.deckSize];
+            for (int card = 0; card < config.deckSize; ++card)
+                for (int i = 0; i < config.featureCount; ++i)
+                    featureMasks[card] |= 1L << (i * config.featureSize + features[card * config.featureCount + i]);
+            featureMask = config.featureSize == Long.SIZE ? -1L : (1L << config.featureSize) - 1;
+        } else {
+            featureMasks = null;
+            featureMask = 0;
+        }
     }
 
-    private void cardToFeatures(int card, int[] features) {
+    private void cardToFeatures(int card, int[] features, int offset) {
         for (int i = config.featureCount - 1; i >= 0; --i) {
-            features[i] = card % config.featureSize;
+            features[offset + i] = card % config.featureSize;
             card /= config.featureSize;
         }
     }
 
     @Override
     public int[] cardToFeatures(int card) {
-        int[] features = new int[config.featureCount];
-        cardToFeatures(card, features);
-        return features;
+        int[] cardFeatures = new int[config.featureCount];
+        System.arraycopy(features, card * config.featureCount, cardFeatures, 0, config.featureCount);
+        return cardFeatures;
     }
 
     @Override
     public int[][] cardsToFeatures(int[] cards) {
-        int[][] features = new int[cards.length][config.featureCount];
-        IntStream.range(0, cards.length).forEach(i -> cardToFeatures(cards[i], features[i]));
-        return features;
+        int[][] cardsFeatures = new int[cards.length][];
+        for (int i = 0; i < cards.length; ++i)
+            cardsFeatures[i] = cardToFeatures(cards[i]);
+        return cardsFeatures;
     }
 
     @Override
     public boolean testSet(int[] cards) {
-        int[][] features = cardsToFeatures(Arrays.copyOf(cards, cards.length));
+        // a single card (or none) is both sameSame and butDifferent in every feature
+        if (cards.length < 2) return config.featureCount == 0;
+        if (featureMasks == null) return testSetByFeatures(cards);
+
+        // in each feature, the cards hold as many distinct values as there are bits set in that feature's mask
+        long union = 0;
+        for (int card : cards)
+            union |= featureMasks[card];
         for (int i = 0; i < config.featureCount; ++i) {
-            boolean sameSame = true, butDifferent = true;
+            int values = Long.bitCount((union >>> (i * config.featureSize)) & featureMask);
+            if (values != 1 && values != cards.length) return false;
+        }
+        return true;
+    }
 
-            // check if this features is sameSame in all cards
-            for (int j = 1; j < features.length; ++j)
-                if (features[0][i] != features[j][i]) {
-                    sameSame = false;
-                    break;
+    /**
+     * Checks if an array of cards forms a legal set by counting the distinct values of each feature: a feature must
+     * hold a single value or a different value in every card.
+     */
+    private boolean testSetByFeatures(int[] cards) {
+        // seen[value] == i + 1 iff the value was seen in feature i (so the array is not cleared between features)
+        int[] seen = new int[config.featureSize];
+        for (int i = 0; i < config.featureCount; ++i) {
+            int values = 0;
+            for (int card : cards) {
+                int value = features[card * config.featureCount + i];
+                if (seen[value] != i + 1) {
+                    seen[value] = i + 1;
+                    values++;
                 }
-
-            // check if this feature is butDifferent in all cards
-            for (int j = 1; j < features.length; ++j)
-                for (int k = j; k < features.length; ++k)
-                    if (features[j - 1][i] == features[k][i]) {
-                        butDifferent = false;
-                        break;
-                    }
-
-            if (sameSame == butDifferent) return false;
+            }
+            if (values != 1 && values != cards.length) return false;
         }
         return true;
     }
 
     @Override
     public List<int[]> findSets(List<Integer> deck, int count) {
+        return findSets(deck, count, false);
+    }
+
+    @Override
+    public List<int[]> findSets(List<Integer> deck, int count, boolean ordered) {
+        int[] cards = toArray(deck);
+        if (config.featureSize == 3) {
+            long[] present = presenceBitmap(deck);
+            return search(cards.length, 2, count, ordered,
+                    (lo, hi, sets, found) -> completeRows(cards, present, lo, hi, sets, count, found));
+        }
+        if (prunable()) {
+            int[] index = indexOf(cards);
+            return search(cards.length, config.featureSize - 1, count, ordered,
+                    (lo, hi, sets, found) -> pruneRows(cards, index, -1, lo, hi, sets, count, found));
+        }
+        return search(cards.length, config.featureSize, count, ordered,
+                (lo, hi, sets, found) -> combineRows(cards, -1, lo, hi, sets, count, found));
+    }
+
+    @Override
+    public List<int[]> findSetsWith(int card, List<Integer> deck, int count) {
+        return findSetsWith(card, deck, config.featureSize == 3 ? presenceBitmap(deck) : null, count);
+    }
+
+    @Override
+    public List<int[]> findSetsWith(int card, List<Integer> deck, long[] members, int count) {
+        if (config.featureSize != 3) {
+            int[] cards = toArray(deck);
+            if (prunable()) {
+                int[] index = indexOf(cards);
+                return search(cards.length, config.featureSize - 2, count, false,
+                        (lo, hi, sets, found) -> pruneRows(cards, index, card, lo, hi, sets, count, found));
+            }
+            return search(cards.length, config.featureSize - 1, count, false,
+                    (lo, hi, sets, found) -> combineRows(cards, card, lo, hi, sets, count, found));
+        }
+
         LinkedList<int[]> sets = new LinkedList<>();
-        int n = deck.size();
-        int r = config.featureSize;
-        int[] combination = new int[r];
+        for (int other : deck) {
+            int third = thirdCard(card, other);
+            // every set is reported once - from the smaller of its two other cards
+            if (third > other && (members[third >>> 6] & (1L << third)) != 0) {
+                int[] set = new int[]{card, other, third};
+                Arrays.sort(set);
+                sets.add(set);
+                if (sets.size() >= count) return sets;
+            }
+        }
+        return sets;
+    }
+
+    /**
+     * Searches a range of rows: the sets whose first card (in the order of the searched cards) is at an index in
+     * the range.
+     */
+    private interface RowSearch {
+        /**
+         * @param lo    - the first row.
+         * @param hi    - the row after the last one.
+         * @param sets  - the list to add the sets found to.
+         * @param found - the number of sets found by all the searches, or null if only this search counts.
+         */
+        void search(int lo, int hi, List<int[]> sets, AtomicInteger found);
+    }
+
+    /**
+     * Searches all the rows, on the calling thread or split across the fork-join pool when there are many
+     * combinations to examine.
+     * An unordered parallel search stops every part of it once count sets were found between them all. An ordered
+     * one returns the sets in the order of a serial search, so each part can only stop at count sets of its own.
+     *
+     * @param n       - the number of searched cards (i.e. rows).
+     * @param r       - the number of searched cards in every combination.
+     * @param count   - the maximum number of sets to find.
+     * @param ordered - true iff the sets must be in the order of a serial search.
+     */
+    private List<int[]> search(int n, int r, int count, boolean ordered, RowSearch rows) {
+        if (r <= 0 || n < r) return new LinkedList<>();
+        if (pool.getParallelism() < 2 || combinations(n, r) < PARALLEL_THRESHOLD) {
+            LinkedList<int[]> sets = new LinkedList<>();
+            rows.search(0, n, sets, null);
+            return sets;
+        }
+        // the first rows hold the most combinations, so the rows are split finer than the number of threads
+        int grain = Math.max(1, n / (pool.getParallelism() * 16));
+        List<int[]> sets = pool.invoke(
+                new SearchTask(rows, 0, n, grain, count, ordered ? null : new AtomicInteger()));
+        return sets.size() > count ? new ArrayList<>(sets.subList(0, count)) : sets;
+    }
+
+    /**
+     * A part of a parallel search: a range of rows, split in halves down to the grain.
+     */
+    private static class SearchTask extends RecursiveTask<List<int[]>> {
 
+        private final RowSearch rows;
+        private final int lo;
+        private final int hi;
+        private final int grain;
+        private final int count;
+        private final AtomicInteger found;
+
+        private SearchTask(RowSearch rows, int lo, int hi, int grain, int count, AtomicInteger found) {
+            this.rows = rows;
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+            this.count = count;
+            this.found = found;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            if (found != null && found.get() >= count) return new ArrayList<>();
+            if (hi - lo <= grain) {
+                List<int[]> sets = new ArrayList<>();
+                rows.search(lo, hi, sets, found);
+                return sets;
+            }
+            int mid = (lo + hi) >>> 1;
+            SearchTask left = new SearchTask(rows, lo, mid, grain, count, found);
+            left.fork();
+            List<int[]> sets = new SearchTask(rows, mid, hi, grain, count, found).compute();
+            List<int[]> leftSets = left.join();
+            leftSets.addAll(sets);
+            return leftSets;
+        }
+    }
+
+    /**
+     * @return - the number of combinations of r out of n (capped at Long.MAX_VALUE).
+     */
+    private static long combinations(int n, int r) {
+        double combinations = 1;
         for (int i = 0; i < r; ++i)
-            combination[i] = i;
+            combinations = combinations * (n - i) / (i + 1);
+        return combinations >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) combinations;
+    }
 
-        while (combination[r - 1] < deck.size()) {
-            int[] cards = Arrays.stream(combination).map(deck::get).sorted().toArray();
-            if (testSet(cards)) {
-                sets.add(cards);
-                if (sets.size() >= count) return sets;
+    /**
+     * Adds a found set to the list.
+     *
+     * @return - true iff the search should stop: count sets were found.
+     */
+    private static boolean addSet(int[] set, List<int[]> sets, int count, AtomicInteger found) {
+        sets.add(set);
+        return found == null ? sets.size() >= count : found.incrementAndGet() >= count;
+    }
+
+    /**
+     * Finds sets by testing every combination of cards from the deck, in lexicographic order.
+     *
+     * @param card - a card to add to every combination, or -1 for none.
+     */
+    private void combineRows(int[] deck, int card, int lo, int hi, List<int[]> sets, int count, AtomicInteger found) {
+        int n = deck.length;
+        int r = card < 0 ? config.featureSize : config.featureSize - 1;
+        int[] combination = new int[r];
+
+        for (int first = lo; first < hi && first <= n - r; ++first) {
+            if (found != null && found.get() >= count) return;
+            for (int i = 0; i < r; ++i)
+                combination[i] = first + i;
+
+            while (true) {
+                int[] cards = new int[config.featureSize];
+                for (int i = 0; i < r; ++i)
+                    cards[i] = deck[combination[i]];
+                if (card >= 0) cards[r] = card;
+                Arrays.sort(cards);
+                if (testSet(cards) && addSet(cards, sets, count, found)) return;
+
+                // generate next combination in lexicographic order, keeping the first card of the row
+                int t = r - 1;
+                while (t != 0 && combination[t] == n - r + t) --t;
+                if (t == 0) break;
+                combination[t]++;
+                for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
             }
+        }
+    }
+
+    /**
+     * @return - true iff the sets can be searched by pruneRows: every card has a feature mask, and a set is completed
+     * by a single card (which is not the case for sets of 2 cards, nor needed for 3 - see completeRows).
+     */
+    private boolean prunable() {
+        return featureMasks != null && config.featureSize > 3;
+    }
 
-            // generate next combination in lexicographic order
-            int t = r - 1;
-            while (t != 0 && combination[t] == n - r + t) --t;
-            combination[t]++;
-            for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
+    /**
+     * Finds sets by extending combinations of cards one card at a time, in lexicographic order. A combination is
+     * dropped as soon as one of its features is neither sameSame nor butDifferent, and the last card of a set is not
+     * searched for: the other cards determine it (a sameSame feature keeps its value and a butDifferent one takes the
+     * single value left), so it is looked up in the index of the deck.
+     *
+     * @param deck  - the cards to search in.
+     * @param index - the index of every card of the game in deck (-1 for the cards not in it).
+     * @param card  - a card to add to every combination, or -1 for none.
+     */
+    private void pruneRows(int[] deck, int[] index, int card, int lo, int hi, List<int[]> sets, int count, AtomicInteger found) {
+        int[] chosen = new int[config.featureSize];
+        int depth = 0;
+        long seed = 0;
+        if (card >= 0) {
+            chosen[depth++] = card;
+            seed = featureMasks[card];
         }
-        return sets;
+        for (int first = lo; first < hi; ++first) {
+            if (found != null && found.get() >= count) return;
+            chosen[depth] = deck[first];
+            long union = seed | featureMasks[deck[first]];
+            if (viable(union, depth + 1) && extend(deck, index, chosen, depth + 1, first, union, sets, count, found))
+                return;
+        }
+    }
+
+    /**
+     * Extends a combination of cards with the cards after its last one in the deck (see pruneRows).
+     *
+     * @param chosen - the cards of the combination.
+     * @param depth  - the number of cards in the combination.
+     * @param last   - the index in the deck of the last card of the combination.
+     * @param union  - the union of the feature masks of the cards of the combination.
+     * @return - true iff the search should stop: count sets were found.
+     */
+    private boolean extend(int[] deck, int[] index, int[] chosen, int depth, int last, long union,
+                           List<int[]> sets, int count, AtomicInteger found) {
+        if (depth == config.featureSize - 1) {
+            int completing = completingCard(union);
+            // every set is reported once - when its last card comes after all the others in the deck
+            if (index[completing] <= last) return false;
+            int[] set = Arrays.copyOf(chosen, config.featureSize);
+            set[depth] = completing;
+            Arrays.sort(set);
+            return addSet(set, sets, count, found);
+        }
+        for (int next = last + 1; next < deck.length; ++next) {
+            long extended = union | featureMasks[deck[next]];
+            if (!viable(extended, depth + 1)) continue;
+            chosen[depth] = deck[next];
+            if (extend(deck, index, chosen, depth + 1, next, extended, sets, count, found)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return - true iff every feature of a combination of cards (given by the union of their masks) is either
+     * sameSame or butDifferent so far.
+     */
+    private boolean viable(long union, int cards) {
+        for (int i = 0; i < config.featureCount; ++i) {
+            int values = Long.bitCount((union >>> (i * config.featureSize)) & featureMask);
+            if (values != 1 && values != cards) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return - the card that completes a viable combination of featureSize - 1 cards (given by the union of their
+     * masks) to a set.
+     */
+    private int completingCard(long union) {
+        int card = 0;
+        for (int i = 0; i < config.featureCount; ++i) {
+            long values = (union >>> (i * config.featureSize)) & featureMask;
+            long value = Long.bitCount(values) == 1 ? values : ~values & featureMask;
+            card += Long.numberOfTrailingZeros(value) * featureWeights[i];
+        }
+        return card;
+    }
+
+    /**
+     * @return - the index of every card of the game in the given cards (-1 for the cards not in them).
+     */
+    private int[] indexOf(int[] cards) {
+        int[] index = new int[config.deckSize];
+        Arrays.fill(index, -1);
+        for (int i = 0; i < cards.length; ++i)
+            index[cards[i]] = i;
+        return index;
+    }
+
+    /**
+     * Finds sets when config.featureSize == 3. In that case every pair of cards is completed to a set by exactly one
+     * card (the one whose features make the sum of each feature divisible by 3), so only pairs need to be examined and
+     * the completing card is looked up in a presence bitmap of the deck.
+     */
+    private void completeRows(int[] cards, long[] present, int lo, int hi, List<int[]> sets, int count, AtomicInteger found) {
+        int n = cards.length;
+        for (int i = lo; i < hi && i < n - 1; ++i) {
+            if (found != null && found.get() >= count) return;
+            for (int j = i + 1; j < n; ++j) {
+                int first = Math.min(cards[i], cards[j]), second = Math.max(cards[i], cards[j]);
+                int third = thirdCard(first, second);
+                // every set is reported once - from the pair of its two smallest cards
+                if (third > second && (present[third >>> 6] & (1L << third)) != 0
+                        && addSet(new int[]{first, second, third}, sets, count, found)) return;
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> deck) {
+        int[] cards = new int[deck.size()];
+        int i = 0;
+        for (int card : deck)
+            cards[i++] = card;
+        return cards;
+    }
+
+    /**
+     * Creates a bitmap holding a bit for every card of the deck.
+     */
+    private long[] presenceBitmap(List<Integer> deck) {
+        long[] present = new long[(config.deckSize + 63) >>> 6];
+        for (int card : deck)
+            present[card >>> 6] |= 1L << card;
+        return present;
+    }
+
+    /**
+     * Computes the card that completes a set with the two given cards, digit by digit in base 3.
+     */
+    private int thirdCard(int first, int second) {
+        int third = 0;
+        for (int i = 0, power = 1; i < config.featureCount; ++i, power *= 3) {
+            third += ((6 - first % 3 - second % 3) % 3) * power;
+            first /= 3;
+            second /= 3;
+        }
+        return third;
     }
 
     public void spin() {
         if (config.randomSpinMax <= 0) return;
-        long cycles = ThreadLocalRandom.current().nextLong(config.randomSpinMin, config.randomSpinMax);
+        long cycles = spinRandoms.get().nextLong(config.randomSpinMin, config.randomSpinMax);
         for (int i = 0; i < cycles; ++i)
             Thread.yield();
     }
@@ -0,0 +1,39 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.SplittableRandom;
+
+/**
+ * This interface lets a computer player decide which keys to press. The player's AI thread asks the strategy for a
+ * claim whenever the player may play, presses the keys of the chosen slots and waits for the verdict (or for the
+ * cards to change).
+ */
+public interface AiStrategy {
+
+    /**
+     * An empty claim: the player waits for the cards on the table to change.
+     */
+    int[] NO_SLOTS = new int[0];
+
+    /**
+     * Chooses the slots to press. Called on the AI thread, which may wait here (e.g. to model a reaction time).
+     *
+     * @return - the slots to press, or NO_SLOTS to wait for the cards on the table to change.
+     * @throws InterruptedException - if the AI thread was interrupted while waiting.
+     */
+    int[] chooseSlots() throws InterruptedException;
+
+    /**
+     * Creates the strategy configured for the computer players (Config::computerStrategy).
+     *
+     * @param env    - the environment object.
+     * @param table  - the table the player plays at.
+     * @param random - the random stream of the player (used by the AI thread only).
+     * @return - the strategy of a computer player.
+     */
+    static AiStrategy create(Env env, Table table, SplittableRandom random) {
+        if (env.config.computerStrategy.equals("solver")) return new SolverAiStrategy(env, table, random);
+        return new RandomAiStrategy(env, table, random);
+    }
+}
@@ -0,0 +1,84 @@
+package bguspl.set.ex;
+
+/**
+ * This class maps slots to cards (or cards to slots), with Table.EMPTY for no value.
+ * The table keeps its mappings in primitive arrays. The boxed form is a live view over the Integer[] arrays given to
+ * the testing constructor of the table (null meaning EMPTY), so a test may still fill and read them directly.
+ */
+abstract class CardMapping {
+
+    /**
+     * @param index - a slot (or a card).
+     * @return - the card in it (or its slot), or Table.EMPTY if none.
+     */
+    abstract int get(int index);
+
+    abstract void set(int index, int value);
+
+    abstract int length();
+
+    /**
+     * @param values - the mapping, with Table.EMPTY for no value.
+     * @return - a mapping held in the given array.
+     */
+    static CardMapping of(int[] values) {
+        return new Primitive(values);
+    }
+
+    /**
+     * @param values - the mapping, with null for no value.
+     * @return - a mapping that reads and writes through the given array.
+     */
+    static CardMapping boxed(Integer[] values) {
+        return new Boxed(values);
+    }
+
+    private static final class Primitive extends CardMapping {
+
+        private final int[] values;
+
+        private Primitive(int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        int get(int index) {
+            return values[index];
+        }
+
+        @Override
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        @Override
+        int length() {
+            return values.length;
+        }
+    }
+
+    private static final class Boxed extends CardMapping {
+
+        private final Integer[] values;
+
+        private Boxed(Integer[] values) {
+            this.values = values;
+        }
+
+        @Override
+        int get(int index) {
+            Integer value = values[index];
+            return value == null ? Table.EMPTY : value;
+        }
+
+        @Override
+        void set(int index, int value) {
+            values[index] = value == Table.EMPTY ? null : value;
+        }
+
+        @Override
+        int length() {
+            return values.length;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package bguspl.set.ex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * This class holds the set claims of the players until the dealer judges them. Each claim is stamped with the time
+ * it was made and holds the cards it was made on, so the dealer can take all the pending claims at once, judge them
+ * oldest first and tell which of them were invalidated by cards removed meanwhile.
+ */
+class ClaimQueue {
+
+    /**
+     * A set claim of a player.
+     */
+    static class Claim {
+
+        final int player;
+
+        /**
+         * The time (System.nanoTime) the claim was made.
+         */
+        final long nanos;
+
+        /**
+         * The slots the player had tokens on and the cards that were in them when the claim was made.
+         */
+        final int[] slots;
+        final int[] cards;
+
+        Claim(int player, long nanos, int[] slots, int[] cards) {
+            this.player = player;
+            this.nanos = nanos;
+            this.slots = slots;
+            this.cards = cards;
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Claim> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Adds a claim, stamped with the current time.
+     *
+     * @param player - the player making the claim.
+     * @param slots  - the slots the player has tokens on.
+     * @param cards  - the cards in these slots.
+     */
+    void submit(int player, int[] slots, int[] cards) {
+        pending.add(new Claim(player, System.nanoTime(), slots, cards));
+    }
+
+    /**
+     * Takes all the pending claims.
+     *
+     * @return - the claims, oldest first.
+     */
+    List<Claim> drain() {
+        List<Claim> claims = new ArrayList<>();
+        Claim claim;
+        while ((claim = pending.poll()) != null)
+            claims.add(claim);
+        // claims made at about the same time may have been added out of order
+        claims.sort(Comparator.comparingLong(c -> c.nanos));
+        return claims;
+    }
+
+    /**
+     * @return - true iff no claims are pending.
+     */
+    boolean isEmpty() {
+        return pending.isEmpty();
+    }
+}
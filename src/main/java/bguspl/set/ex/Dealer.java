@@ -1,11 +1,12 @@
 package bguspl.set.ex;
 
 import bguspl.set.Env;
+import bguspl.set.Journal;
+import bguspl.set.ThreadBackend;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.function.BooleanSupplier;
 
 /**
  * This class manages the dealer's threads and data
@@ -24,9 +25,29 @@ public class Dealer implements Runnable {
     private final Player[] players;
 
     /**
-     * The list of card ids that are left in the dealer's deck.
+     * The card ids that are left in the dealer's deck.
      */
-    private final List<Integer> deck;
+    private final Deck deck;
+
+    /**
+     * The dealer's random stream (split off the game's), for dealing.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * The number of sets left among the cards still in the game (in the deck or on the table).
+     */
+    private final SetCounter setsLeft;
+
+    /**
+     * The statistics of the game.
+     */
+    private final GameMetrics metrics;
+
+    /**
+     * The time (System.currentTimeMillis) of the next periodic dump of the statistics to the log.
+     */
+    private long nextMetricsDump;
 
     /**
      * True iff game should be terminated.
@@ -34,33 +55,47 @@ public class Dealer implements Runnable {
     private volatile boolean terminate;
 
     /**
-     * The time when the dealer needs to reshuffle the deck due to turn timeout.
+     * The time when the dealer needs to reshuffle the deck due to turn timeout (or when the elapsed time started,
+     * if there is no turn timeout).
      */
     private long reshuffleTime;
-    private long currentTimeLeft;
-    private long timeToWait;
-    public final Object actionLocker;
-    public final Object setLocker;
-    public final Object[] playerShouldWait;
+
+    /**
+     * The scheduler of the countdown ticks and of the players' freeze expiries.
+     */
+    final TimerWheel timers;
+
+    /**
+     * The next countdown tick, and whether it is due.
+     */
+    private TimerWheel.Timeout timerTick;
+    private volatile boolean timerTickDue;
+    public final Signal actionLocker;
+    public final Signal setLocker;
+    public final Signal[] playerShouldWait;
+    private final BooleanSupplier shouldWake;
     private final boolean noTimeMode;
     private boolean noSetsLeft;
     public final long secInMil = 1000;
     public final long tenMil = 10;
-    public final long oneMil = 1;
 
     public Dealer(Env env, Table table, Player[] players) {
         this.env = env;
         this.table = table;
         this.players = players;
-        deck = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
-        actionLocker = new Object();
-        setLocker = new Object();
-        playerShouldWait = new Object[env.config.players];
-        Arrays.fill(playerShouldWait, new Object());
+        deck = new Deck(env.config.deckSize);
+        random = env.random.split();
+        setsLeft = new SetCounter(env.config, env.util);
+        metrics = table.metrics();
+        nextMetricsDump = System.currentTimeMillis() + env.config.metricsDumpMillis;
+        actionLocker = new Signal();
+        setLocker = new Signal();
+        playerShouldWait = new Signal[env.config.players];
+        Arrays.setAll(playerShouldWait, i -> new Signal());
+        shouldWake = () -> !table.claims.isEmpty() || timerTickDue || terminate;
         reshuffleTime = env.config.turnTimeoutMillis + System.currentTimeMillis();
-        currentTimeLeft = env.config.turnTimeoutMillis;
+        timers = TimerWheel.shared();
         noTimeMode = env.config.turnTimeoutMillis <= 0;
-        timeToWait = secInMil;
         noSetsLeft = false;
     }
 
@@ -71,7 +106,7 @@ public class Dealer implements Runnable {
     public void run() {
         env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
         for (Player player : players) {
-            Thread playerThread = new Thread(player);
+            Thread playerThread = ThreadBackend.newThread(env.config, player, "player-" + player.id);
             playerThread.start();
         }
         while (!shouldFinish()) {
@@ -80,7 +115,9 @@ public class Dealer implements Runnable {
             updateTimerDisplay(false);
             removeAllCardsFromTable();
         }
+        if (timerTick != null) timerTick.cancel();
         announceWinners();
+        dumpMetrics(true);
         env.logger.info("thread " + Thread.currentThread().getName() + " terminated.");
     }
 
@@ -88,14 +125,13 @@ public class Dealer implements Runnable {
      * The inner loop of the dealer thread that runs as long as the countdown did not time out.
      */
     private void timerLoop() {
-        while (!terminate && (noTimeMode || System.currentTimeMillis() < reshuffleTime)) {
+        // a table dealt with no set is reshuffled right away: no player may ever claim anything on it to wake the dealer
+        while (!terminate && !noSetsLeft && (noTimeMode || System.currentTimeMillis() < reshuffleTime)) {
             sleepUntilWokenOrTimeout();
+            dumpMetrics(false);
             updateTimerDisplay(false);
             removeCardsFromTable();
             placeCardsOnTable();
-            if (noSetsLeft) {
-                break;
-            }
         }
         noSetsLeft = false;
     }
@@ -106,6 +142,7 @@ public class Dealer implements Runnable {
     public void terminate() {
         // TODO implement
         terminate = true;
+        setLocker.signalAll();
         try {
             for (int i = players.length - 1; i >= 0; i--) {
                 players[i].terminate();
@@ -117,45 +154,60 @@ public class Dealer implements Runnable {
         }
     }
 
+    /**
+     * @return - the statistics of the game.
+     */
+    public GameMetrics metrics() {
+        return metrics;
+    }
+
     /**
      * Check if the game should be terminated or the game end conditions are met.
      *
      * @return true iff the game should be finished.
      */
     private boolean shouldFinish() {
-        return terminate || env.util.findSets(deck, 1).size() == 0;
+        return terminate || !setsLeft.hasSets();
     }
 
     /**
      * Checks cards should be removed from the table and removes them.
+     * All the pending claims are judged at once, oldest first. A claim on cards that were removed since it was made
+     * (by an earlier claim or a reshuffle) is rejected without a penalty.
      */
     private void removeCardsFromTable() {
         // TODO implement
-        Integer playerId = table.setAnnouncements.poll();
-        if (playerId != null) {
-            int[] cardsToCheck = new int[env.config.featureSize];
+        List<ClaimQueue.Claim> claims = table.claims.drain();
+        if (!claims.isEmpty()) {
+            metrics.claimQueueDepth.record(claims.size());
+        }
+        for (ClaimQueue.Claim claim : claims) {
+            int playerId = claim.player;
             boolean needToRemove = false;
-            synchronized (playerShouldWait[playerId]) {
-                int j = 0;
-                for (int i = 0; i < env.config.tableSize; i++) {
-                    if (table.playersToTokens[playerId][i] == 1) {
-                        cardsToCheck[j] = table.slotToCard[i];
-                        j++;
-                    }
-                }
-                if (j == env.config.featureSize && env.util.testSet(cardsToCheck)) {
-                    players[playerId].point();
-                    updateTimerDisplay(true);
-                    needToRemove = true;
-                } else {
-                    players[playerId].penalty();
-                }
-                table.shouldWait[playerId] = false;
-                playerShouldWait[playerId].notifyAll();
+            if (!table.claimHolds(claim)) {
+                metrics.rejectedClaims.increment();
+            } else if (env.util.testSet(claim.cards)) {
+                players[playerId].point();
+                updateTimerDisplay(true);
+                needToRemove = true;
+                metrics.sets.increment();
+            } else {
+                players[playerId].penalty();
+                metrics.penalties.increment();
             }
+            metrics.claims.increment();
+            metrics.claimLatency.record(System.nanoTime() - claim.nanos);
+            playerShouldWait[playerId].signalAll(() -> table.shouldWait[playerId] = false);
             if (needToRemove) {
-                for (int i = 0; i < cardsToCheck.length; i++) {
-                    table.removeCard(table.cardToSlot[cardsToCheck[i]]);
+                // the claim holds, so its slots still hold its cards: they are replaced right away
+                int[] cards = new int[claim.slots.length];
+                for (int i = 0; i < cards.length; i++)
+                    cards[i] = deck.isEmpty() ? Table.EMPTY : deck.draw(random);
+                table.replaceSet(claim.slots, cards);
+                for (int card : claim.cards) {
+                    long searchStart = System.nanoTime();
+                    setsLeft.cardRemoved(card);
+                    metrics.findSets.record(System.nanoTime() - searchStart);
                 }
             }
         }
@@ -166,121 +218,129 @@ public class Dealer implements Runnable {
      */
     private void placeCardsOnTable() {
         // TODO implement
-        Collections.shuffle(deck);
+        int[] cards = new int[env.config.tableSize];
+        int[] slots = new int[env.config.tableSize];
         int changed = 0;
         for (int i = 0; i < env.config.tableSize; i++) {
-            int rndCard = (int) (Math.random() * deck.size());
-            if (table.slotToCard[i] == null && !deck.isEmpty()) {
-                int card = deck.remove(rndCard);
-                table.placeCard(card, i);
+            if (table.cardAt(i) == Table.EMPTY && !deck.isEmpty()) {
+                cards[changed] = deck.draw(random);
+                slots[changed] = i;
                 changed += 1;
             }
         }
-        table.switchingCards = false;
-        synchronized (actionLocker) {
-            actionLocker.notifyAll();
+        if (changed != 0) {
+            // the whole refill is placed at once, and the user interface deals it
+            table.placeCards(Arrays.copyOf(cards, changed), Arrays.copyOf(slots, changed));
         }
+        actionLocker.signalAll(() -> table.switchingCards = false);
         if (changed != 0) {
             updateTimerDisplay(true);
         }
         if (noTimeMode) {
-            List<Integer> cardsOnTable = Arrays.asList(table.slotToCard);
-            if (cardsOnTable.contains(null)) {
-                cardsOnTable = new ArrayList<>();
-                for (Integer card : table.slotToCard) {
-                    if (card != null) {
-                        cardsOnTable.add(card);
-                    }
-                }
-            }
-            noSetsLeft = env.util.findSets(cardsOnTable, 1).isEmpty();
+            noSetsLeft = !table.hasSets();
         }
     }
 
     /**
      * Sleep for a fixed amount of time or until the thread is awakened for some purpose.
+     * The dealer parks until a set is claimed or the next countdown tick scheduled by updateTimerDisplay is due.
      */
     private void sleepUntilWokenOrTimeout() {
         // TODO implement
-        if (!noTimeMode) {
-            synchronized (setLocker) {
-                try {
-                    long runTime = currentTimeLeft - reshuffleTime + System.currentTimeMillis();
-                    if (table.setAnnouncements.isEmpty() && timeToWait - runTime > oneMil) {
-                        setLocker.wait(timeToWait - runTime - oneMil);
-                    }
-                } catch (InterruptedException ignored) {
-                }
-            }
-        } else if (env.config.turnTimeoutMillis < 0) {
-            synchronized (setLocker) {
-                try {
-                    if (table.setAnnouncements.isEmpty()) {
-                        setLocker.wait();
-                    }
-                } catch (InterruptedException ignored) {
-                }
-            }
-        } else {
-            synchronized (setLocker) {
-                try {
-                    long runTime = System.currentTimeMillis() - currentTimeLeft - reshuffleTime;
-                    if (table.setAnnouncements.isEmpty() && timeToWait - runTime > oneMil) {
-                        setLocker.wait(timeToWait - runTime - oneMil);
-                    }
-                } catch (InterruptedException ignored) {
-                }
-            }
+        try {
+            setLocker.await(shouldWake);
+        } catch (InterruptedException ignored) {
         }
+        timerTickDue = false;
     }
 
     /**
-     * Reset and/or update the countdown and the countdown display.
+     * Reset and/or update the countdown and the countdown display, and schedule its next tick: every second until
+     * the warning time, and every 10 milliseconds after it.
      */
     private void updateTimerDisplay(boolean reset) {
         // TODO implement
+        long now = System.currentTimeMillis();
         if (!noTimeMode) {
-            currentTimeLeft = reshuffleTime - System.currentTimeMillis();
             if (reset) {
-                reshuffleTime = env.config.turnTimeoutMillis + System.currentTimeMillis();
-                currentTimeLeft = env.config.turnTimeoutMillis;
-                env.ui.setCountdown(env.config.turnTimeoutMillis, env.config.turnTimeoutMillis <= env.config.turnTimeoutWarningMillis);
-            } else if (currentTimeLeft > 0) {
-                env.ui.setCountdown(currentTimeLeft, currentTimeLeft <= env.config.turnTimeoutWarningMillis);
-                if (currentTimeLeft > env.config.turnTimeoutWarningMillis) {
-                    timeToWait = secInMil;
-                } else {
-                    timeToWait = Math.min(currentTimeLeft, tenMil);
-                }
+                reshuffleTime = env.config.turnTimeoutMillis + now;
+            }
+            long timeLeft = Math.max(reshuffleTime - now, 0);
+            boolean warn = timeLeft <= env.config.turnTimeoutWarningMillis;
+            env.ui.setCountdown(timeLeft, warn);
+            if (timeLeft > 0) {
+                long untilNextSecond = timeLeft % secInMil == 0 ? secInMil : timeLeft % secInMil;
+                scheduleTimerTick(warn ? Math.min(timeLeft, tenMil)
+                        : Math.min(untilNextSecond, timeLeft - env.config.turnTimeoutWarningMillis));
             }
         } else if (env.config.turnTimeoutMillis == 0) {
             if (reset) {
-                reshuffleTime = System.currentTimeMillis();
-                env.ui.setCountdown(env.config.turnTimeoutMillis, false);
-            } else {
-                currentTimeLeft = System.currentTimeMillis() - reshuffleTime;
-                env.ui.setCountdown(currentTimeLeft, false);
+                reshuffleTime = now;
             }
+            long elapsed = now - reshuffleTime;
+            env.ui.setCountdown(elapsed, false);
+            scheduleTimerTick(secInMil - elapsed % secInMil);
         }
     }
 
+    /**
+     * Replaces the next countdown tick.
+     *
+     * @param delayMillis - the time until the tick.
+     */
+    private void scheduleTimerTick(long delayMillis) {
+        if (timerTick != null) timerTick.cancel();
+        timerTick = timers.schedule(delayMillis, () -> setLocker.signalAll(() -> timerTickDue = true));
+    }
 
     /**
-     * Returns all the cards from the table to the deck.
+     * Returns all the cards from the table to the deck, and deals a new table in the same step (unless the game is
+     * over).
      */
     private void removeAllCardsFromTable() {
         // TODO implement
-        synchronized (table) {
-            table.switchingCards = true;
-            for (int i = 0; i < env.config.tableSize; i++) {
-                if (table.slotToCard[i] != null) {
-                    int card = table.slotToCard[i];
-                    table.removeCard(i);
-                    deck.add(card);
-                }
-            }
+        table.switchingCards = true;
+        // the pending claims are on the cards about to be removed: they are rejected before the swap, so the players
+        // released by the verdict wait for the new table rather than for a change that already happened
+        rejectPendingClaims();
+        // only the dealer changes the cards, so the table still holds these when it is swapped
+        for (int i = 0; i < env.config.tableSize; i++) {
+            int card = table.cardAt(i);
+            if (card != Table.EMPTY) deck.put(card);
+        }
+        boolean deal = !shouldFinish();
+        int[] cards = new int[env.config.tableSize];
+        for (int i = 0; i < cards.length; i++)
+            cards[i] = deal && !deck.isEmpty() ? deck.draw(random) : Table.EMPTY;
+        table.reshuffleAll(cards);
+        if (deal) updateTimerDisplay(true);
+    }
+
+    /**
+     * Rejects all the claims waiting for the dealer, without checking them.
+     */
+    private void rejectPendingClaims() {
+        for (ClaimQueue.Claim claim : table.claims.drain()) {
+            int playerId = claim.player;
+            metrics.rejectedClaims.increment();
+            metrics.claims.increment();
+            metrics.claimLatency.record(System.nanoTime() - claim.nanos);
+            playerShouldWait[playerId].signalAll(() -> table.shouldWait[playerId] = false);
+        }
+    }
+
+    /**
+     * Writes the statistics of the game to the log, every config.metricsDumpMillis.
+     *
+     * @param force - true iff the statistics should be written even if it is not time yet.
+     */
+    private void dumpMetrics(boolean force) {
+        if (env.config.metricsDumpMillis <= 0) return;
+        long now = System.currentTimeMillis();
+        if (force || now >= nextMetricsDump) {
+            nextMetricsDump = now + env.config.metricsDumpMillis;
+            env.logger.info("metrics: " + metrics.snapshot());
         }
-        Collections.shuffle(deck);
     }
 
     /**
@@ -301,6 +361,7 @@ public class Dealer implements Runnable {
         int[] winnersId = new int[winners.size()];
         int i = 0;
         for (Integer id : winners) {
+            env.journal.record(Journal.Event.WINNER, id, -1, max);
             winnersId[i] = id;
             i++;
         }
@@ -0,0 +1,132 @@
+package bguspl.set.ex;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+
+/**
+ * This class holds a collection of distinct cards in primitive arrays. The cards are kept packed at the start of an
+ * array, in no particular order, and every card knows its position in it, so drawing a random card, taking out a given
+ * card and putting a card back are O(1): a card is taken out by moving the last card into its place.
+ * The cards are also kept in a bitmap (a bit for every card id), for the set-finding code.
+ * Since every draw is uniform over the cards left, the deck never needs to be shuffled.
+ * The deck is a read-only list of its cards (in their current order), so it can be given to Util as is.
+ * The deck is not thread safe.
+ *
+ * @inv 0 <= size() <= cards.length
+ * @inv for every 0 <= i < size(): positions[get(i)] == i and the bit of get(i) is set in members()
+ */
+class Deck extends AbstractList<Integer> implements RandomAccess {
+
+    /**
+     * The position of a card that is not in the deck.
+     */
+    private static final int ABSENT = -1;
+
+    /**
+     * The cards of the deck, in cards[0..size).
+     */
+    private final int[] cards;
+
+    /**
+     * The position of every card id in cards, or ABSENT.
+     */
+    private final int[] positions;
+
+    /**
+     * A bit for every card id in the deck.
+     */
+    private final long[] members;
+
+    private int size;
+
+    /**
+     * Creates a deck holding every card id in [0, deckSize).
+     *
+     * @param deckSize - the number of cards in the game.
+     */
+    Deck(int deckSize) {
+        cards = new int[deckSize];
+        positions = new int[deckSize];
+        members = new long[(deckSize + Long.SIZE - 1) / Long.SIZE];
+        for (int card = 0; card < deckSize; card++) {
+            cards[card] = card;
+            positions[card] = card;
+            members[card / Long.SIZE] |= 1L << card;
+        }
+        size = deckSize;
+    }
+
+    @Override
+    public Integer get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        return cards[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param card - a card id.
+     * @return - true iff the card is in the deck.
+     */
+    boolean has(int card) {
+        return card >= 0 && card < positions.length && positions[card] != ABSENT;
+    }
+
+    /**
+     * Takes a random card out of the deck.
+     *
+     * @param random - the random stream to draw with.
+     * @return - the card drawn.
+     * @pre !isEmpty()
+     */
+    int draw(SplittableRandom random) {
+        int card = cards[random.nextInt(size)];
+        take(card);
+        return card;
+    }
+
+    /**
+     * Takes a card out of the deck.
+     *
+     * @param card - the card id.
+     * @return - true iff the card was in the deck.
+     */
+    boolean take(int card) {
+        if (!has(card)) return false;
+        int position = positions[card];
+        int last = cards[--size];
+        cards[position] = last;
+        positions[last] = position;
+        positions[card] = ABSENT;
+        members[card / Long.SIZE] &= ~(1L << card);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Puts a card back in the deck.
+     *
+     * @param card - the card id.
+     * @return - true iff the card was not in the deck already.
+     */
+    boolean put(int card) {
+        if (has(card)) return false;
+        cards[size] = card;
+        positions[card] = size++;
+        members[card / Long.SIZE] |= 1L << card;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * @return - the bitmap of the cards in the deck: card c is in the deck iff bit c % 64 of word c / 64 is set.
+     * The bitmap is a live view: it must not be changed, and it changes with the deck.
+     */
+    long[] members() {
+        return members;
+    }
+}
@@ -0,0 +1,158 @@
+package bguspl.set.ex;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * This class collects the statistics of a single game, as it is played. The counters are striped and the histograms
+ * are lock-free, so the game threads can record to them on their hot paths. Times are in nanoseconds.
+ */
+public class GameMetrics implements GameMetricsMXBean {
+
+    /**
+     * The number of set claims the dealer judged, how many of them were legal sets, how many were penalized and how
+     * many were rejected (with no penalty) because their cards were removed before they were judged.
+     */
+    public final LongAdder claims = new LongAdder();
+    public final LongAdder sets = new LongAdder();
+    public final LongAdder penalties = new LongAdder();
+    public final LongAdder rejectedClaims = new LongAdder();
+
+    /**
+     * The number of keys pressed by the computer players.
+     */
+    public final LongAdder aiKeyPresses = new LongAdder();
+
+    /**
+     * The number of claims waiting for the dealer each time it takes the pending claims.
+     */
+    public final Histogram claimQueueDepth = new Histogram();
+
+    /**
+     * The time from a player claiming a set until the dealer's verdict.
+     */
+    public final Histogram claimLatency = new Histogram();
+
+    /**
+     * The time spent searching for the sets of a card placed on or removed from the table or the deck.
+     */
+    public final Histogram findSets = new Histogram();
+
+    /**
+     * The time spent waiting for the table's monitor before changing the cards.
+     */
+    public final Histogram tableLockWait = new Histogram();
+
+    /**
+     * The time players spent frozen after a point or a penalty.
+     */
+    public final Histogram freeze = new Histogram();
+
+    /**
+     * The System.nanoTime of the start of the game.
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * The name the metrics are registered with in the platform MBean server (null if not registered).
+     */
+    private ObjectName objectName;
+
+    @Override
+    public long getClaims() {
+        return claims.sum();
+    }
+
+    @Override
+    public long getSets() {
+        return sets.sum();
+    }
+
+    @Override
+    public long getPenalties() {
+        return penalties.sum();
+    }
+
+    @Override
+    public long getRejectedClaims() {
+        return rejectedClaims.sum();
+    }
+
+    @Override
+    public long getAiKeyPresses() {
+        return aiKeyPresses.sum();
+    }
+
+    @Override
+    public double getAiKeyPressesPerSecond() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed == 0 ? 0 : aiKeyPresses.sum() * 1e9 / elapsed;
+    }
+
+    @Override
+    public Histogram.Snapshot getClaimQueueDepth() {
+        return claimQueueDepth.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getClaimLatency() {
+        return claimLatency.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getFindSets() {
+        return findSets.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getTableLockWait() {
+        return tableLockWait.snapshot();
+    }
+
+    @Override
+    public Histogram.Snapshot getFreeze() {
+        return freeze.snapshot();
+    }
+
+    /**
+     * @return - a single line summary of the statistics, for logging.
+     */
+    public String snapshot() {
+        return String.format("claims %d, sets %d, penalties %d, rejected claims %d, ai key presses %d (%.1f/s), "
+                        + "claim queue depth [%s], claim latency [%s], find sets [%s], table lock wait [%s], freeze [%s]",
+                getClaims(), getSets(), getPenalties(), getRejectedClaims(), getAiKeyPresses(),
+                getAiKeyPressesPerSecond(),
+                claimQueueDepth, claimLatency, findSets, tableLockWait, freeze);
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server, so they can be watched with JMX tools (e.g. jconsole).
+     *
+     * @param name   - the name of the game, unique in the JVM.
+     * @param logger - the logger to report errors to.
+     */
+    public synchronized void register(String name, Logger logger) {
+        try {
+            ObjectName objectName = new ObjectName("bguspl.set:type=GameMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch (JMException e) {
+            logger.warning("cannot register the metrics of " + name + ": " + e);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they were registered.
+     */
+    public synchronized void unregister() {
+        if (objectName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException ignored) {
+        }
+        objectName = null;
+    }
+}
@@ -0,0 +1,29 @@
+package bguspl.set.ex;
+
+/**
+ * The management interface of the statistics of a game (see GameMetrics). Times are in nanoseconds.
+ */
+public interface GameMetricsMXBean {
+
+    long getClaims();
+
+    long getSets();
+
+    long getPenalties();
+
+    long getRejectedClaims();
+
+    long getAiKeyPresses();
+
+    double getAiKeyPressesPerSecond();
+
+    Histogram.Snapshot getClaimQueueDepth();
+
+    Histogram.Snapshot getClaimLatency();
+
+    Histogram.Snapshot getFindSets();
+
+    Histogram.Snapshot getTableLockWait();
+
+    Histogram.Snapshot getFreeze();
+}
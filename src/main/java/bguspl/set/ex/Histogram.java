@@ -0,0 +1,147 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values (e.g. latencies in nanoseconds) that can be recorded concurrently without locks.
+ * Values are counted in buckets of logarithmically growing width: every power of two is split into 16 buckets, so a
+ * percentile is accurate to within about 6% of its value.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long lowestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value - the value (negative values are recorded as 0).
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        // the maximum rarely changes, so it is only written when it does
+        if (value > max.get()) max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Adds all the values recorded in another histogram to this one.
+     *
+     * @param other - the other histogram.
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = other.counts.get(i);
+            if (bucketCount != 0) counts.addAndGet(i, bucketCount);
+        }
+        count.add(other.count.sum());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    /**
+     * @return - the number of values recorded.
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return - the largest value recorded (0 if none).
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile - the percentile (between 0 and 100).
+     * @return - the highest value in the bucket that holds the given percentile of the recorded values (0 if none).
+     */
+    public long percentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(i + 1 < BUCKETS ? lowestValueOf(i + 1) - 1 : Long.MAX_VALUE, max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * @return - the current count, maximum and main percentiles of the histogram.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(count(), percentile(50), percentile(90), percentile(99), max());
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * The count, maximum and main percentiles of a histogram at some point in time.
+     */
+    public static class Snapshot {
+
+        private final long count;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long max;
+
+        public Snapshot(long count, long p50, long p90, long p99, long max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "count " + count + " p50 " + p50 + " p90 " + p90 + " p99 " + p99 + " max " + max;
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package bguspl.set.ex;
 
+import java.util.ArrayList;
+import java.util.SplittableRandom;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 import bguspl.set.Env;
+import bguspl.set.Journal;
 import bguspl.set.Main;
+import bguspl.set.ThreadBackend;
 
 /**
  * This class manages the players' threads and data
@@ -62,6 +68,30 @@ public class Player implements Runnable {
     private volatile AtomicLong timeToSleep;
     private final AtomicLong ZERO = new AtomicLong(0);
 
+    /**
+     * One permit for every key press the AI may have pending (queued or being handled by the player thread).
+     */
+    private final Semaphore keyPermits;
+
+    /**
+     * How the AI chooses the keys to press (null for a human player).
+     */
+    private final AiStrategy strategy;
+
+    /**
+     * Conditions the player (and AI) threads wait for.
+     */
+    private final BooleanSupplier cardsPlaced;
+    private final BooleanSupplier claimAnswered;
+    private final BooleanSupplier mayPlay;
+
+    /**
+     * Wakes up the frozen player when the freeze display is due for an update.
+     */
+    private final Signal freezeTick;
+    private volatile boolean freezeTickDue;
+    private final BooleanSupplier freezeTickOrTerminate;
+
 
     /**
      * The class constructor.
@@ -80,6 +110,15 @@ public class Player implements Runnable {
         this.human = human;
         actions = new ArrayBlockingQueue<>(env.config.featureSize);
         timeToSleep = new AtomicLong(0);
+        keyPermits = new Semaphore(env.config.featureSize);
+        // every player splits a stream, so that the streams of the computer players do not depend on the human ones
+        SplittableRandom random = env.random.split();
+        strategy = human ? null : AiStrategy.create(env, table, random);
+        cardsPlaced = () -> !table.switchingCards;
+        claimAnswered = () -> !table.shouldWait[id] || terminate;
+        mayPlay = () -> !table.shouldWait[id] && timeToSleep.get() <= ZERO.get();
+        freezeTick = new Signal();
+        freezeTickOrTerminate = () -> freezeTickDue || terminate;
     }
 
 
@@ -96,14 +135,12 @@ public class Player implements Runnable {
             // TODO implement main player loop
             try {
                 if (!table.switchingCards) {
-                    synchronized (dealer.playerShouldWait[id]) {
-                        while (table.shouldWait[id]) {
-                            dealer.playerShouldWait[id].wait();
-                        }
-                    }
+                    dealer.playerShouldWait[id].await(claimAnswered);
                     if (timeToSleep.get() > ZERO.get()) {
                         playerSleep();
                     }
+                    // no key is pressed for a terminated player (its AI thread is gone), so it must not wait for one
+                    if (terminate) continue;
 
                     int slot = actions.take();
 
@@ -112,19 +149,13 @@ public class Player implements Runnable {
                             table.placeToken(id, slot);
                         }
                         if (table.playerHasSet(id)) {
-                            synchronized (dealer.setLocker) {
-                                dealer.setLocker.notifyAll();
-                            }
+                            dealer.setLocker.signalAll();
                         }
 
                     }
+                    if (!human) keyPermits.release();
                 } else {
-                    synchronized (dealer.actionLocker) {
-                        while (table.switchingCards) {
-                            dealer.actionLocker.wait();
-                        }
-                        dealer.actionLocker.notifyAll();
-                    }
+                    dealer.actionLocker.await(cardsPlaced);
                 }
             } catch (InterruptedException e) {
                 // TODO: handle exception
@@ -139,27 +170,40 @@ public class Player implements Runnable {
     }
 
     /**
-     * Creates an additional thread for an AI (computer) player. The main loop of this thread repeatedly generates
-     * key presses. If the queue of key presses is full, the thread waits until it is not full.
+     * Creates an additional thread for an AI (computer) player. The main loop of this thread repeatedly presses the
+     * keys its strategy chooses. If the queue of key presses is full, the thread waits until it is not full.
+     * The thread only wakes up when it can act: when its previous key presses were handled, the verdict on its claim
+     * was given or the cards on the table changed.
      */
     private void createArtificialIntelligence() {
-        // note: this is a very, very smart AI (!)
-        aiThread = new Thread(() -> {
+        aiThread = ThreadBackend.newThread(env.config, () -> {
             env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
             while (!terminate) {
-                // TODO implement player key press simulator
-                if (!table.switchingCards) {
-                    if (table.playerHasSet(id)) {
-                        for (int i = 0; i < table.playersToTokens[id].length; i++) {
-                            if (table.playersToTokens[id][i] == 1) {
-                                keyPressed(i);
-                            }
+                try {
+                    awaitTurn();
+                    long cardChanges = table.cardChanges();
+                    // read after the card changes: if the cards are being switched, the presses below may be dropped
+                    // and the switch may end with no further change, so the thread waits for its turn instead
+                    boolean switchingCards = table.switchingCards;
+
+                    // take back the tokens of a rejected set, then try the cards the strategy chooses
+                    for (int i = 0; i < env.config.tableSize; i++) {
+                        if (table.hasToken(id, i)) {
+                            pressKey(i);
                         }
                     }
-                    if (actions.remainingCapacity() > 0) {
-                        int rndCard = (int) (Math.random() * env.config.tableSize);
-                        keyPressed(rndCard);
+                    for (int slot : strategy.chooseSlots()) {
+                        pressKey(slot);
+                    }
+
+                    // once the presses are handled, either a set was claimed (and may already be rejected) or
+                    // nothing changes until the cards do
+                    keyPermits.acquire(env.config.featureSize);
+                    keyPermits.release(env.config.featureSize);
+                    if (!switchingCards && !table.shouldWait[id] && !table.playerHasSet(id)) {
+                        table.awaitCardChange(cardChanges);
                     }
+                } catch (InterruptedException ignored) {
                 }
             }
             env.logger.info("thread " + Thread.currentThread().getName() + " terminated.");
@@ -167,12 +211,35 @@ public class Player implements Runnable {
         aiThread.start();
     }
 
+    /**
+     * Blocks the AI thread until the player may play: the cards are not being switched, no claim of the player is
+     * waiting for the dealer and the player is not frozen.
+     */
+    private void awaitTurn() throws InterruptedException {
+        dealer.actionLocker.await(cardsPlaced);
+        dealer.playerShouldWait[id].await(mayPlay);
+    }
+
+    /**
+     * Queues a key press of the AI, waiting for room in the queue first.
+     *
+     * @param slot - the slot corresponding to the key pressed.
+     */
+    private void pressKey(int slot) throws InterruptedException {
+        keyPermits.acquire();
+        if (queueKey(slot)) table.metrics().aiKeyPresses.increment();
+        else keyPermits.release();
+    }
+
     /**
      * Called when the game should be terminated.
      */
     public void terminate() {
         // TODO implement
         terminate = true;
+        // wake up the player thread if it is frozen or waiting for the verdict on its claim
+        freezeTick.signalAll();
+        dealer.playerShouldWait[id].signalAll();
         if (!human) {
             try {
                 aiThread.interrupt();
@@ -194,13 +261,25 @@ public class Player implements Runnable {
      */
     public void keyPressed(int slot) {
         // TODO implement
+        queueKey(slot);
+    }
+
+    /**
+     * Queues a key press, unless the player cannot play right now.
+     *
+     * @param slot - the slot corresponding to the key pressed.
+     * @return - true iff the key press was queued.
+     */
+    private boolean queueKey(int slot) {
         if (!table.switchingCards && !table.shouldWait[id]) {
             try {
                 actions.put(slot);
+                return true;
             } catch (Exception e) {
                 // TODO: handle exception
             }
         }
+        return false;
     }
 
     /**
@@ -213,6 +292,7 @@ public class Player implements Runnable {
         // TODO implement
         int ignored = table.countCards(); // this part is just for demonstration in the unit tests
         env.ui.setScore(id, ++score); //update score
+        env.journal.record(Journal.Event.POINT, id, -1, score);
         timeToSleep.compareAndSet(0, env.config.pointFreezeMillis);
     }
 
@@ -221,23 +301,40 @@ public class Player implements Runnable {
      */
     public void penalty() {
         //TODO implement
+        env.journal.record(Journal.Event.PENALTY, id, -1, env.config.penaltyFreezeMillis);
         timeToSleep.compareAndSet(0, env.config.penaltyFreezeMillis);
     }
 
+    /**
+     * Freezes the player for timeToSleep milliseconds. The freeze display is updated every second, and the player
+     * thread parks between the updates until the timer wheel wakes it up.
+     */
     public void playerSleep() {
+        long freezeStart = System.nanoTime();
+        long freezeEnd = System.currentTimeMillis() + timeToSleep.get();
+        TimerWheel.Timeout tick = null;
         try {
-            //long startingTime = System.currentTimeMillis();
-            while (timeToSleep.get() > ZERO.get()) {
-                env.ui.setFreeze(id, timeToSleep.get());
-                Thread.sleep(Math.min(timeToSleep.get(), dealer.secInMil));
-                timeToSleep.compareAndSet(timeToSleep.get(), timeToSleep.get() - dealer.secInMil);
+            // a terminated player stops waiting for the ticks (terminate wakes it up)
+            for (long timeLeft; !terminate && (timeLeft = freezeEnd - System.currentTimeMillis()) > 0; ) {
+                env.ui.setFreeze(id, timeLeft);
+                freezeTickDue = false;
+                long untilNextSecond = timeLeft % dealer.secInMil == 0 ? dealer.secInMil : timeLeft % dealer.secInMil;
+                tick = dealer.timers.schedule(untilNextSecond, () -> freezeTick.signalAll(() -> freezeTickDue = true));
+                freezeTick.await(freezeTickOrTerminate);
             }
-            actions.clear();
+            int dropped = actions.drainTo(new ArrayList<>());
+            if (!human) keyPermits.release(dropped);
             env.ui.setFreeze(id, 0);
+        } catch (InterruptedException e) {
+            // the game is being terminated: the main loop sees the interrupt (and the terminate flag) next
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             // TODO: handle exception
+        } finally {
+            if (tick != null) tick.cancel();
         }
-        timeToSleep.set(ZERO.get());
+        table.metrics().freeze.record(System.nanoTime() - freezeStart);
+        dealer.playerShouldWait[id].signalAll(() -> timeToSleep.set(ZERO.get()));
     }
 
     public int score() {
@@ -0,0 +1,46 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A computer player that presses featureSize random cards of the table (a set only by chance).
+ */
+class RandomAiStrategy implements AiStrategy {
+
+    private final Env env;
+    private final Table table;
+    private final SplittableRandom random;
+
+    /**
+     * The slots holding cards (reused between claims).
+     */
+    private final int[] slots;
+
+    RandomAiStrategy(Env env, Table table, SplittableRandom random) {
+        this.env = env;
+        this.table = table;
+        this.random = random;
+        slots = new int[env.config.tableSize];
+    }
+
+    @Override
+    public int[] chooseSlots() {
+        int cards = 0;
+        for (int i = 0; i < env.config.tableSize; i++) {
+            if (table.cardAt(i) != Table.EMPTY) {
+                slots[cards++] = i;
+            }
+        }
+        int presses = Math.min(env.config.featureSize, cards);
+        for (int i = 0; i < presses; i++) {
+            int rnd = i + random.nextInt(cards - i);
+            int slot = slots[rnd];
+            slots[rnd] = slots[i];
+            slots[i] = slot;
+        }
+        return Arrays.copyOf(slots, presses);
+    }
+}
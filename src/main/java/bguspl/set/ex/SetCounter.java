@@ -0,0 +1,63 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Util;
+
+/**
+ * This class counts the legal sets that can still be formed from the cards left in the game (in the deck or on the
+ * table). The count starts from the number of sets in a full deck and goes down as cards leave the game.
+ */
+class SetCounter {
+
+    private final Util util;
+
+    /**
+     * The cards that did not leave the game yet.
+     */
+    private final Deck cards;
+
+    /**
+     * The number of legal sets among the cards.
+     */
+    private long sets;
+
+    SetCounter(Config config, Util util) {
+        this.util = util;
+        cards = new Deck(config.deckSize);
+        sets = fullDeckSets(config.featureSize, config.featureCount);
+    }
+
+    /**
+     * Counts the sets of a full deck: each feature of an ordered set is either the same value in all cards
+     * (featureSize ways) or a permutation of all values (featureSize! ways). Ordered sets of a card repeated are left
+     * out, and the rest are counted once per ordering.
+     */
+    private static long fullDeckSets(int featureSize, int featureCount) {
+        long orderings = 1;
+        for (int i = 2; i <= featureSize; i++)
+            orderings *= i;
+        long ordered = 1, repeated = 1;
+        for (int i = 0; i < featureCount; i++) {
+            ordered *= featureSize + orderings;
+            repeated *= featureSize;
+        }
+        return (ordered - repeated) / orderings;
+    }
+
+    /**
+     * Takes a card out of the game, along with the sets it could have been part of.
+     *
+     * @param card - the card that left the game.
+     */
+    void cardRemoved(int card) {
+        if (cards.take(card))
+            sets -= util.findSetsWith(card, cards, cards.members(), Integer.MAX_VALUE).size();
+    }
+
+    /**
+     * @return - true iff a legal set can still be formed from the cards left in the game.
+     */
+    boolean hasSets() {
+        return sets > 0;
+    }
+}
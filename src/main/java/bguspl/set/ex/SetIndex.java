@@ -0,0 +1,61 @@
+package bguspl.set.ex;
+
+import bguspl.set.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class keeps track of the legal sets among the cards on the table. It is updated one card at a time, so only
+ * the sets containing the placed or removed card are looked at.
+ */
+class SetIndex {
+
+    private final Util util;
+
+    /**
+     * The sets (as sorted card ids) that are currently on the table.
+     */
+    private final List<int[]> sets;
+
+    SetIndex(Util util) {
+        this.util = util;
+        sets = new ArrayList<>();
+    }
+
+    /**
+     * Adds the sets formed by a newly placed card.
+     *
+     * @param card   - the card placed on the table.
+     * @param others - the other cards on the table.
+     */
+    void cardPlaced(int card, List<Integer> others) {
+        sets.addAll(util.findSetsWith(card, others, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Drops the sets that contained a card removed from the table.
+     *
+     * @param card - the card removed from the table.
+     */
+    void cardRemoved(int card) {
+        sets.removeIf(set -> contains(set, card));
+    }
+
+    private static boolean contains(int[] set, int card) {
+        for (int c : set)
+            if (c == card) return true;
+        return false;
+    }
+
+    boolean isEmpty() {
+        return sets.isEmpty();
+    }
+
+    /**
+     * @return - a copy of the sets currently on the table.
+     */
+    List<int[]> sets() {
+        return new ArrayList<>(sets);
+    }
+}
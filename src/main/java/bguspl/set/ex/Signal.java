@@ -0,0 +1,80 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * This class lets threads wait for a condition over the game state and be woken up when it may have changed.
+ * It is built on a ReentrantLock rather than on a synchronized block, so a virtual thread that waits does not pin its
+ * carrier thread.
+ */
+public class Signal {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    /**
+     * Waits until the condition holds.
+     *
+     * @param condition - the condition to wait for (checked while holding the lock).
+     */
+    public void await(BooleanSupplier condition) throws InterruptedException {
+        lock.lock();
+        try {
+            while (!condition.getAsBoolean())
+                changed.await();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the condition holds or the time is up.
+     *
+     * @param condition - the condition to wait for (checked while holding the lock).
+     * @param millis    - the maximum time to wait, in milliseconds.
+     * @return - true iff the condition holds.
+     */
+    public boolean await(BooleanSupplier condition, long millis) throws InterruptedException {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        lock.lock();
+        try {
+            while (!condition.getAsBoolean()) {
+                if (nanos <= 0) return false;
+                nanos = changed.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the game state and wakes up all the waiting threads.
+     *
+     * @param change - the change to make (run while holding the lock).
+     */
+    public void signalAll(Runnable change) {
+        lock.lock();
+        try {
+            change.run();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up all the waiting threads, after the game state was changed.
+     */
+    public void signalAll() {
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
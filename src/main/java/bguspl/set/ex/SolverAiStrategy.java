@@ -0,0 +1,70 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A computer player that presses a set on the table, found through the table's index of sets, after a reaction time
+ * drawn from a normal distribution (Config::computerReactionMillis and Config::computerReactionDeviationMillis).
+ * With probability 1 - Config::computerSkill it makes a mistake and presses random cards instead.
+ * When there are no sets on the table it presses nothing and waits for the cards to change.
+ */
+class SolverAiStrategy implements AiStrategy {
+
+    private final Env env;
+    private final Table table;
+    private final SplittableRandom random;
+    private final RandomAiStrategy mistakes;
+
+    /**
+     * A spare normally distributed value: the polar method draws them in pairs.
+     */
+    private double spareGaussian = Double.NaN;
+
+    SolverAiStrategy(Env env, Table table, SplittableRandom random) {
+        this.env = env;
+        this.table = table;
+        this.random = random;
+        mistakes = new RandomAiStrategy(env, table, random);
+    }
+
+    @Override
+    public int[] chooseSlots() throws InterruptedException {
+        long reaction = Math.round(env.config.computerReactionMillis + nextGaussian() * env.config.computerReactionDeviationMillis);
+        if (reaction > 0) Thread.sleep(reaction);
+
+        if (random.nextDouble() >= env.config.computerSkill) return mistakes.chooseSlots();
+        List<int[]> sets = table.sets();
+        if (sets.isEmpty()) return NO_SLOTS;
+        int[] set = sets.get(random.nextInt(sets.size()));
+        int[] slots = new int[set.length];
+        for (int i = 0; i < set.length; i++) {
+            slots[i] = table.slotOf(set[i]);
+            // the set was taken off the table since the index was copied
+            if (slots[i] == Table.EMPTY) return NO_SLOTS;
+        }
+        return slots;
+    }
+
+    /**
+     * @return - a standard normally distributed value (SplittableRandom has no nextGaussian in Java 8).
+     */
+    private double nextGaussian() {
+        if (!Double.isNaN(spareGaussian)) {
+            double gaussian = spareGaussian;
+            spareGaussian = Double.NaN;
+            return gaussian;
+        }
+        double x, y, s;
+        do {
+            x = 2 * random.nextDouble() - 1;
+            y = 2 * random.nextDouble() - 1;
+            s = x * x + y * y;
+        } while (s >= 1 || s == 0);
+        double scale = Math.sqrt(-2 * Math.log(s) / s);
+        spareGaussian = y * scale;
+        return x * scale;
+    }
+}
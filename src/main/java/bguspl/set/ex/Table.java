@@ -1,12 +1,12 @@
 package bguspl.set.ex;
 
 import bguspl.set.Env;
+import bguspl.set.Journal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
@@ -23,25 +23,58 @@ public class Table {
     private final Env env;
 
     /**
-     * Mapping between a slot and the card placed in it (null if none).
+     * The value of an empty slot in slotToCard, and of a card that is not on the table in cardToSlot.
      */
-    protected final Integer[] slotToCard; // card per slot (if any)
+    public static final int EMPTY = -1;
 
     /**
-     * Mapping between a card and the slot it is in (null if none).
+     * Mapping between a slot and the card placed in it (EMPTY if none).
      */
-    protected final Integer[] cardToSlot; // slot per card (if any)
+    protected final CardMapping slotToCard; // card per slot (if any)
 
-    protected final Integer[][] playersToTokens; // new field
+    /**
+     * Mapping between a card and the slot it is in (EMPTY if none).
+     */
+    protected final CardMapping cardToSlot; // slot per card (if any)
+
+    /**
+     * The tokens of the players (placed and removed without locking the table).
+     */
+    private final TokenBoard tokens;
 
     protected volatile boolean switchingCards; //when placing cards
 
     public Semaphore fairSemaphore;
 
-    protected BlockingQueue<Integer> setAnnouncements;
+    /**
+     * The set claims waiting for the dealer.
+     */
+    protected final ClaimQueue claims;
 
     protected volatile boolean[] shouldWait;
 
+    /**
+     * The legal sets among the cards on the table.
+     */
+    private final SetIndex setIndex;
+
+    /**
+     * An unmodifiable copy of the sets in setIndex, published after every change of the cards, so the sets are read
+     * without taking the table's monitor.
+     */
+    private volatile List<int[]> sets;
+
+    /**
+     * The statistics of the game.
+     */
+    private final GameMetrics metrics;
+
+    /**
+     * The number of times a card was placed on or removed from the table.
+     */
+    private volatile long cardChanges;
+    private final Signal cardChanged;
+
 
     /**
      * Constructor for testing.
@@ -49,22 +82,10 @@ public class Table {
      * @param env        - the game environment objects.
      * @param slotToCard - mapping between a slot and the card placed in it (null if none).
      * @param cardToSlot - mapping between a card and the slot it is in (null if none).
-     * //@param playersToTokens - mapping between a player and the slot he picked (null if none).
      */
     public Table(Env env, Integer[] slotToCard, Integer[] cardToSlot) {
 
-        this.env = env;
-        this.slotToCard = slotToCard;
-        this.cardToSlot = cardToSlot;
-        this.playersToTokens = new Integer[env.config.players][env.config.tableSize];
-        for(int i = 0; i < env.config.players; i++) {
-            Arrays.fill(playersToTokens[i], 0);
-        }
-        switchingCards = true;
-        fairSemaphore = new Semaphore(1,true);
-        setAnnouncements = new ArrayBlockingQueue<>(env.config.players, true);
-        shouldWait = new boolean[env.config.players];
-        Arrays.fill(shouldWait, false);
+        this(env, CardMapping.boxed(slotToCard), CardMapping.boxed(cardToSlot));
     }
 
     /**
@@ -74,22 +95,58 @@ public class Table {
      */
     public Table(Env env) {
 
-        this(env, new Integer[env.config.tableSize], new Integer[env.config.deckSize]);
+        this(env, CardMapping.of(emptyArray(env.config.tableSize)), CardMapping.of(emptyArray(env.config.deckSize)));
+    }
+
+    private Table(Env env, CardMapping slotToCard, CardMapping cardToSlot) {
+
+        this.env = env;
+        this.slotToCard = slotToCard;
+        this.cardToSlot = cardToSlot;
+        this.tokens = new TokenBoard(env.config.players, env.config.tableSize);
+        switchingCards = true;
+        fairSemaphore = new Semaphore(1,true);
+        claims = new ClaimQueue();
+        shouldWait = new boolean[env.config.players];
+        Arrays.fill(shouldWait, false);
+        setIndex = new SetIndex(env.util);
+        sets = Collections.emptyList();
+        metrics = new GameMetrics();
+        cardChanged = new Signal();
+    }
+
+    private static int[] emptyArray(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, EMPTY);
+        return array;
     }
 
     /**
      * This method prints all possible legal sets of cards that are currently on the table.
      */
     public void hints() {
-        List<Integer> deck = Arrays.stream(slotToCard).filter(Objects::nonNull).collect(Collectors.toList());
-        env.util.findSets(deck, Integer.MAX_VALUE).forEach(set -> {
+        sets().forEach(set -> {
             StringBuilder sb = new StringBuilder().append("Hint: Set found: ");
-            List<Integer> slots = Arrays.stream(set).mapToObj(card -> cardToSlot[card]).sorted().collect(Collectors.toList());
+            List<Integer> slots = Arrays.stream(set).mapToObj(cardToSlot::get).sorted().collect(Collectors.toList());
             int[][] features = env.util.cardsToFeatures(set);
             System.out.println(sb.append("slots: ").append(slots).append(" features: ").append(Arrays.deepToString(features)));
         });
     }
 
+    /**
+     * @return - true iff there is at least one legal set among the cards on the table.
+     */
+    public boolean hasSets() {
+        return !sets.isEmpty();
+    }
+
+    /**
+     * @return - the legal sets (as sorted card ids) among the cards currently on the table, as an unmodifiable list.
+     */
+    public List<int[]> sets() {
+        return sets;
+    }
+
     /**
      * Count the number of cards currently on the table.
      *
@@ -97,8 +154,8 @@ public class Table {
      */
     public int countCards() {
         int cards = 0;
-        for (Integer card : slotToCard)
-            if (card != null)
+        for (int slot = 0; slot < slotToCard.length(); slot++)
+            if (slotToCard.get(slot) != EMPTY)
                 ++cards;
         return cards;
     }
@@ -110,60 +167,235 @@ public class Table {
      *
      * @post - the card placed is on the table, in the assigned slot.
      */
-    public synchronized void placeCard(int card, int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
-        // TODO implement
-            cardToSlot[card] = slot;
-            slotToCard[slot] = card;
+    public void placeCard(int card, int slot) {
+        long lockStart = System.nanoTime();
+        synchronized (this) {
+            metrics.tableLockWait.record(System.nanoTime() - lockStart);
+            try {
+                Thread.sleep(env.config.tableDelayMillis);
+            } catch (InterruptedException ignored) {}
+            // TODO implement
+            cardsChanged(swapCards(new int[]{slot}, new int[]{card}));
             env.ui.placeCard(card, slot);
+        }
+    }
+
+    /**
+     * Places a batch of cards on the table at once: the players see either none or all of them, and the table's
+     * monitor is held only while the cards are placed. The table delay is not slept here - the user interface deals
+     * the cards one after the other instead.
+     * @param cards - the card ids to place.
+     * @param slots - the slots in which the cards should be placed (respectively).
+     *
+     * @post - every card placed is on the table, in its assigned slot.
+     */
+    public void placeCards(int[] cards, int[] slots) {
+        long lockStart = System.nanoTime();
+        synchronized (this) {
+            metrics.tableLockWait.record(System.nanoTime() - lockStart);
+            cardsChanged(swapCards(slots, cards));
+            env.ui.placeCards(cards, slots);
+        }
+    }
+
+    /**
+     * Replaces the cards of a claimed set with new cards at once: the cards are taken off and the new ones placed
+     * under a single hold of the table's monitor, with a single sweep of the tokens on the set's slots.
+     * @param slots - the slots of the set.
+     * @param cards - the new card for each slot (respectively), or EMPTY to leave the slot empty.
+     */
+    public void replaceSet(int[] slots, int[] cards) {
+        long lockStart = System.nanoTime();
+        synchronized (this) {
+            metrics.tableLockWait.record(System.nanoTime() - lockStart);
+            cardsChanged(swapCards(slots, cards));
+            env.ui.replaceCards(cards, slots);
+        }
+    }
+
+    /**
+     * Swaps the whole table for a new one at once (the cards that were on it are not returned to any deck here).
+     * @param cards - the new card for every slot, or EMPTY to leave the slot empty.
+     */
+    public void reshuffleAll(int[] cards) {
+        int[] slots = new int[env.config.tableSize];
+        Arrays.setAll(slots, slot -> slot);
+        long lockStart = System.nanoTime();
+        synchronized (this) {
+            metrics.tableLockWait.record(System.nanoTime() - lockStart);
+            env.journal.record(Journal.Event.RESHUFFLE, -1, -1, 0);
+            cardsChanged(swapCards(slots, cards));
+            env.ui.replaceCards(cards, slots);
+        }
     }
 
     /**
      * Removes a card from a grid slot on the table.
      * @param slot - the slot from which to remove the card.
      */
-    public synchronized void removeCard(int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
-        // TODO implement
-        if(slotToCard != null) {
-            int card = slotToCard[slot];
-            for (int i = 0; i < env.config.players; i++) {
-                removeToken(i, slot);
+    public void removeCard(int slot) {
+        long lockStart = System.nanoTime();
+        synchronized (this) {
+            metrics.tableLockWait.record(System.nanoTime() - lockStart);
+            try {
+                Thread.sleep(env.config.tableDelayMillis);
+            } catch (InterruptedException ignored) {}
+            // TODO implement
+            if(slotToCard.get(slot) != EMPTY) {
+                cardsChanged(swapCards(new int[]{slot}, new int[]{EMPTY}));
+                env.ui.removeTokens(slot);
+                env.ui.removeCard(slot);
             }
-            cardToSlot[card] = null;
-            slotToCard[slot] = null;
-            env.ui.removeCard(slot);
         }
     }
+
+    /**
+     * Removes a batch of cards from the table at once, along with their tokens, under a single hold of the table's
+     * monitor (and without the table delay).
+     * @param slots - the slots from which to remove the cards (empty slots are skipped).
+     */
+    public void removeCards(int[] slots) {
+        long lockStart = System.nanoTime();
+        synchronized (this) {
+            metrics.tableLockWait.record(System.nanoTime() - lockStart);
+            int[] cards = new int[slots.length];
+            Arrays.fill(cards, EMPTY);
+            cardsChanged(swapCards(slots, cards));
+            env.ui.replaceCards(cards, slots);
+        }
+    }
+
+    /**
+     * Takes the cards out of a group of slots and puts new cards in them (with the table's monitor held). The slots
+     * are all marked as changing, so no token lands on them meanwhile, and their tokens are swept at once.
+     * @param slots - the slots.
+     * @param cards - the new card for each slot (respectively), or EMPTY to leave the slot empty.
+     * @return - the number of cards taken out and placed.
+     */
+    private int swapCards(int[] slots, int[] cards) {
+        long[] swept = new long[(env.config.tableSize + Long.SIZE - 1) / Long.SIZE];
+        for (int slot : slots) {
+            tokens.beginChange(slot);
+            swept[slot / Long.SIZE] |= 1L << slot;
+        }
+        long[] removed = tokens.sweep(swept);
+        for (int i = 0; i < removed.length; i++)
+            for (long bits = removed[i]; bits != 0; bits &= bits - 1)
+                env.journal.record(Journal.Event.REMOVE_TOKEN, i / swept.length,
+                        i % swept.length * Long.SIZE + Long.numberOfTrailingZeros(bits), 0);
+
+        int changes = 0;
+        for (int slot : slots) {
+            int card = slotToCard.get(slot);
+            if (card != EMPTY) {
+                setIndex.cardRemoved(card);
+                cardToSlot.set(card, EMPTY);
+                slotToCard.set(slot, EMPTY);
+                env.journal.record(Journal.Event.REMOVE_CARD, -1, slot, card);
+                changes++;
+            }
+        }
+        for (int i = 0; i < slots.length; i++) {
+            if (cards[i] != EMPTY) {
+                long searchStart = System.nanoTime();
+                setIndex.cardPlaced(cards[i], otherCards(slots[i]));
+                metrics.findSets.record(System.nanoTime() - searchStart);
+                cardToSlot.set(cards[i], slots[i]);
+                slotToCard.set(slots[i], cards[i]);
+                env.journal.record(Journal.Event.PLACE_CARD, -1, slots[i], cards[i]);
+                changes++;
+            }
+        }
+        if (changes != 0) sets = Collections.unmodifiableList(setIndex.sets());
+        for (int slot : slots)
+            tokens.endChange(slot);
+        return changes;
+    }
+
+    /**
+     * Wakes up the threads waiting for a card change, once for a whole batch of changes.
+     */
+    private void cardsChanged(int changes) {
+        if (changes != 0) cardChanged.signalAll(() -> cardChanges += changes);
+    }
+
+    /**
+     * @return - the statistics of the game.
+     */
+    public GameMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * @return - the number of times a card was placed on or removed from the table so far.
+     */
+    public long cardChanges() {
+        return cardChanges;
+    }
+
+    /**
+     * Waits until a card is placed on or removed from the table.
+     * @param since - the number of card changes already seen (see cardChanges).
+     */
+    public void awaitCardChange(long since) throws InterruptedException {
+        cardChanged.await(() -> cardChanges != since);
+    }
+
+    /**
+     * @param slot - a slot to leave out.
+     * @return - the cards placed in all other slots.
+     */
+    private List<Integer> otherCards(int slot) {
+        List<Integer> cards = new ArrayList<>();
+        for (int i = 0; i < slotToCard.length(); i++)
+            if (i != slot && slotToCard.get(i) != EMPTY)
+                cards.add(slotToCard.get(i));
+        return cards;
+    }
     /**
      * checks if a player can place the Token
      * @param slot   - the slot on which to place the token.
      */
      public boolean isTokenLegal(int slot) {
-        return slotToCard[slot] != null;
+        return slotToCard.get(slot) != EMPTY;
      }
+
+    /**
+     * @param slot - the slot.
+     * @return     - the card placed in the slot, or EMPTY if none.
+     */
+    public int cardAt(int slot) {
+        return slotToCard.get(slot);
+    }
+
+    /**
+     * @param card - the card.
+     * @return     - the slot the card is placed in, or EMPTY if it is not on the table.
+     */
+    public int slotOf(int card) {
+        return cardToSlot.get(card);
+    }
     /**
      * Places a player token on a grid slot.
      * @param player - the player the token belongs to.
      * @param slot   - the slot on which to place the token.
      */
-    public synchronized void placeToken(int player, int slot) {
+    public void placeToken(int player, int slot) {
         // TODO implement
-        if(isTokenLegal(slot) && (!playerHasSet(player)) )
+        int version = tokens.version(slot);
+        if(isTokenLegal(slot) && (!playerHasSet(player)) && tokens.place(player, slot, version))
         {
-            try {
-                playersToTokens[player][slot] = 1;
-                env.ui.placeToken(player, slot);
-                if (playerHasSet(player)) {
-                    setAnnouncements.put(player);
-                    shouldWait[player] = true;
-                }
-            } catch(InterruptedException ignored) {}
-
+            env.journal.record(Journal.Event.PLACE_TOKEN, player, slot, 0);
+            env.ui.placeToken(player, slot);
+            if (!tokens.hasToken(player, slot)) {
+                // the card was removed meanwhile, and its slot might have been cleared before the token was shown
+                env.journal.record(Journal.Event.REMOVE_TOKEN, player, slot, 0);
+                env.ui.removeToken(player, slot);
+            } else if (playerHasSet(player)) {
+                shouldWait[player] = true;
+                env.journal.record(Journal.Event.CLAIM, player, -1, 0);
+                submitClaim(player);
+            }
         }
     }
 
@@ -173,22 +405,63 @@ public class Table {
      * @param slot   - the slot from which to remove the token.
      * @return       - true iff a token was successfully removed.
      */
-    public synchronized boolean removeToken(int player, int slot) {
+    public boolean removeToken(int player, int slot) {
         // TODO implement
-        if(slotToCard[slot] != null && playersToTokens[player][slot] == 1)
+        if(tokens.remove(player, slot))
         {
-            playersToTokens[player][slot] = 0;
+            env.journal.record(Journal.Event.REMOVE_TOKEN, player, slot, 0);
             env.ui.removeToken(player, slot);
             return true;
         }
         return false;
     }
 
-    public synchronized boolean playerHasSet(int player) {
-        Integer sum = 0;
-        for (Integer i : playersToTokens[player]) {
-            sum += i;
+    /**
+     * @param player - the player.
+     * @param slot   - the slot.
+     * @return       - true iff the player has a token on the slot.
+     */
+    public boolean hasToken(int player, int slot) {
+        return tokens.hasToken(player, slot);
+    }
+
+    /**
+     * Claims the cards under the tokens of a player as a set.
+     * @param player - the player.
+     */
+    private void submitClaim(int player) {
+        int[] slots = new int[env.config.featureSize];
+        int[] cards = new int[env.config.featureSize];
+        int found = 0;
+        for (int slot = 0; slot < env.config.tableSize && found < slots.length; slot++) {
+            if (tokens.hasToken(player, slot)) {
+                slots[found] = slot;
+                cards[found++] = slotToCard.get(slot);
+            }
+        }
+        // a token swept meanwhile leaves an empty slot, which the dealer rejects
+        for (; found < slots.length; found++) {
+            slots[found] = EMPTY;
+            cards[found] = EMPTY;
+        }
+        claims.submit(player, slots, cards);
+    }
+
+    /**
+     * @param claim - a set claim.
+     * @return      - true iff the cards of the claim are still on the table, with the tokens of the player on them.
+     */
+    boolean claimHolds(ClaimQueue.Claim claim) {
+        for (int i = 0; i < claim.slots.length; i++) {
+            int slot = claim.slots[i];
+            if (slot == EMPTY || claim.cards[i] == EMPTY || slotToCard.get(slot) != claim.cards[i]
+                    || !tokens.hasToken(claim.player, slot))
+                return false;
         }
-        return sum == env.config.featureSize;
+        return true;
+    }
+
+    public boolean playerHasSet(int player) {
+        return tokens.tokenCount(player) == env.config.featureSize;
     }
 }
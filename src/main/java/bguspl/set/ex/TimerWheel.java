@@ -0,0 +1,169 @@
+package bguspl.set.ex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class runs short tasks at given times: the countdown ticks and reshuffles of the dealer and the freeze
+ * expiries of the players. It is a hashed timer wheel of 10 millisecond ticks on a single thread, shared by all the
+ * games in the JVM. The thread only wakes up at ticks that have timeouts in them, so the game threads can park until
+ * their own deadline instead of polling.
+ * The tasks run on the wheel's thread and must not block (waking up the thread that waits for them is fine).
+ */
+class TimerWheel {
+
+    /**
+     * The length of a tick and the number of ticks in a round of the wheel (a power of 2).
+     */
+    static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * A scheduled task.
+     */
+    static class Timeout {
+
+        private final long deadlineTick;
+        private final Runnable task;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        /**
+         * Prevents the task from running, if it did not run yet.
+         */
+        void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static TimerWheel shared;
+
+    /**
+     * The timeouts in each bucket of the wheel (accessed by the wheel's thread only).
+     */
+    @SuppressWarnings("unchecked")
+    private final List<Timeout>[] buckets = new List[WHEEL_SIZE];
+
+    /**
+     * The timeouts scheduled since the wheel's thread last looked.
+     */
+    private final ConcurrentLinkedQueue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+    private final long startNanos = System.nanoTime();
+    private final long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+
+    /**
+     * The last tick handled and the number of timeouts in the buckets (accessed by the wheel's thread only).
+     */
+    private long tick;
+    private int pending;
+
+    private final Thread thread;
+
+    TimerWheel(String name) {
+        for (int i = 0; i < WHEEL_SIZE; i++)
+            buckets[i] = new ArrayList<>();
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return - the timer wheel shared by all the games.
+     */
+    static synchronized TimerWheel shared() {
+        if (shared == null) shared = new TimerWheel("timer-wheel");
+        return shared;
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param delayMillis - the time from now at which to run the task (rounded up to a whole tick).
+     * @param task        - the task.
+     * @return - the timeout, to cancel the task with.
+     */
+    Timeout schedule(long delayMillis, Runnable task) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(delayMillis, 0));
+        Timeout timeout = new Timeout((deadline - startNanos + tickNanos - 1) / tickNanos, task);
+        scheduled.add(timeout);
+        LockSupport.unpark(thread);
+        return timeout;
+    }
+
+    /**
+     * The wheel's thread starts here.
+     */
+    private void run() {
+        while (true) {
+            long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+            // an empty wheel skips the ticks it slept through
+            if (pending == 0) tick = Math.max(tick, nowTick);
+            Timeout timeout;
+            while ((timeout = scheduled.poll()) != null)
+                add(timeout);
+            while (tick < nowTick)
+                expire(++tick);
+
+            long nextTick = nextBusyTick();
+            if (!scheduled.isEmpty()) continue;
+            if (nextTick < 0) LockSupport.park(this);
+            else LockSupport.parkNanos(this, startNanos + nextTick * tickNanos - System.nanoTime());
+        }
+    }
+
+    /**
+     * Puts a timeout in the bucket of its deadline (or of the next tick, if its deadline has passed).
+     */
+    private void add(Timeout timeout) {
+        long deadlineTick = Math.max(timeout.deadlineTick, tick + 1);
+        timeout.rounds = (deadlineTick - tick - 1) / WHEEL_SIZE;
+        buckets[(int) (deadlineTick & (WHEEL_SIZE - 1))].add(timeout);
+        pending++;
+    }
+
+    /**
+     * Runs the tasks due at a tick. The other timeouts in its bucket are a round closer to their deadline.
+     */
+    private void expire(long tick) {
+        List<Timeout> bucket = buckets[(int) (tick & (WHEEL_SIZE - 1))];
+        if (bucket.isEmpty()) return;
+        List<Timeout> due = new ArrayList<>();
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            Timeout timeout = bucket.get(i);
+            if (timeout.cancelled || timeout.rounds == 0) {
+                bucket.set(i, bucket.get(bucket.size() - 1));
+                bucket.remove(bucket.size() - 1);
+                pending--;
+                if (!timeout.cancelled) due.add(timeout);
+            } else {
+                timeout.rounds--;
+            }
+        }
+        for (int i = due.size() - 1; i >= 0; i--) {
+            try {
+                due.get(i).task.run();
+            } catch (RuntimeException ignored) {
+                // a failing task must not stop the timers of the other tasks
+            }
+        }
+    }
+
+    /**
+     * @return - the next tick with timeouts in its bucket, or -1 if there are none.
+     */
+    private long nextBusyTick() {
+        if (pending == 0) return -1;
+        for (long next = tick + 1; next <= tick + WHEEL_SIZE; next++)
+            if (!buckets[(int) (next & (WHEEL_SIZE - 1))].isEmpty()) return next;
+        return -1;
+    }
+}
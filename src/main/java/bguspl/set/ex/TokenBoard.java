@@ -0,0 +1,136 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class holds the tokens of the players without locking. The tokens of each player are a bitmask over the table
+ * slots, changed by compare-and-set, and every slot has a version that is odd while the card in it is being replaced.
+ * A token is only kept if the version of its slot did not change while it was being placed.
+ *
+ * @inv tokenCount(player) == the number of slots s for which hasToken(player, s)
+ */
+class TokenBoard {
+
+    /**
+     * The number of longs holding the tokens of a single player.
+     */
+    private final int words;
+
+    /**
+     * The tokens of every player, words after words (player * words + slot / 64).
+     */
+    private final AtomicLongArray tokens;
+
+    /**
+     * The version of every slot (odd while the card in the slot is being replaced).
+     */
+    private final AtomicIntegerArray versions;
+
+    TokenBoard(int players, int slots) {
+        words = (slots + Long.SIZE - 1) / Long.SIZE;
+        tokens = new AtomicLongArray(players * words);
+        versions = new AtomicIntegerArray(slots);
+    }
+
+    private int word(int player, int slot) {
+        return player * words + slot / Long.SIZE;
+    }
+
+    /**
+     * @param slot - the slot.
+     * @return - the current version of the slot, or -1 if its card is being replaced right now.
+     */
+    int version(int slot) {
+        int version = versions.get(slot);
+        return (version & 1) == 0 ? version : -1;
+    }
+
+    /**
+     * Places a token of a player, as long as the slot is still in the given version.
+     *
+     * @param player  - the player the token belongs to.
+     * @param slot    - the slot on which to place the token.
+     * @param version - the version of the slot the token was meant for (see version).
+     * @return - true iff the token was placed.
+     */
+    boolean place(int player, int slot, int version) {
+        if (version < 0) return false;
+        int word = word(player, slot);
+        long bit = 1L << slot;
+        long mask;
+        do {
+            mask = tokens.get(word);
+            if ((mask & bit) != 0) return false;
+        } while (!tokens.compareAndSet(word, mask, mask | bit));
+
+        // the card was replaced in the meantime - the token might have missed the sweep of the slot
+        if (versions.get(slot) != version) {
+            remove(player, slot);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes a token of a player.
+     *
+     * @param player - the player the token belongs to.
+     * @param slot   - the slot from which to remove the token.
+     * @return - true iff a token was removed.
+     */
+    boolean remove(int player, int slot) {
+        int word = word(player, slot);
+        long bit = 1L << slot;
+        long mask;
+        do {
+            mask = tokens.get(word);
+            if ((mask & bit) == 0) return false;
+        } while (!tokens.compareAndSet(word, mask, mask & ~bit));
+        return true;
+    }
+
+    /**
+     * Removes the tokens of every player from a group of slots at once.
+     *
+     * @param slots - a bitmask over the slots (in the layout of the tokens of a single player).
+     * @return - the tokens removed, player after player, in the layout of the tokens (player * words + slot / 64).
+     */
+    long[] sweep(long[] slots) {
+        long[] removed = new long[tokens.length()];
+        for (int i = 0; i < removed.length; i++) {
+            long mask = slots[i % words];
+            if (mask != 0) removed[i] = tokens.getAndAccumulate(i, mask, (word, m) -> word & ~m) & mask;
+        }
+        return removed;
+    }
+
+    boolean hasToken(int player, int slot) {
+        return (tokens.get(word(player, slot)) & (1L << slot)) != 0;
+    }
+
+    int tokenCount(int player) {
+        int count = 0;
+        for (int i = player * words; i < (player + 1) * words; i++)
+            count += Long.bitCount(tokens.get(i));
+        return count;
+    }
+
+    /**
+     * Marks a slot as being changed, so tokens placed from now on until endChange are dropped.
+     *
+     * @param slot - the slot whose card is about to be replaced.
+     */
+    void beginChange(int slot) {
+        versions.incrementAndGet(slot);
+    }
+
+    /**
+     * Marks the change of a slot as done.
+     *
+     * @param slot - the slot whose card was replaced.
+     */
+    void endChange(int slot) {
+        versions.incrementAndGet(slot);
+    }
+}
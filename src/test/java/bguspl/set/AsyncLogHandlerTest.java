@@ -0,0 +1,120 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncLogHandlerTest {
+
+    @Test
+    void flush_WritesAllRecordsInOrder() throws InterruptedException {
+
+        CollectingHandler delegate = new CollectingHandler();
+        AsyncLogHandler handler = new AsyncLogHandler(delegate, 1 << 12);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++)
+                    handler.publish(new LogRecord(Level.SEVERE, thread + " " + i));
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        handler.flush();
+
+        assertEquals(2000, delegate.messages().size());
+        assertEquals(2000, handler.written());
+        assertEquals(0, handler.dropped());
+        // the records of each thread keep their order
+        int[] next = new int[threads.length];
+        for (String message : delegate.messages()) {
+            String[] parts = message.split(" ");
+            assertEquals(next[Integer.parseInt(parts[0])]++, Integer.parseInt(parts[1]));
+        }
+        handler.close();
+    }
+
+    @Test
+    void publish_DropsRecordsWhenTheBufferIsFull() throws InterruptedException {
+
+        CollectingHandler delegate = new CollectingHandler();
+        delegate.blocked = new CountDownLatch(1);
+        AsyncLogHandler handler = new AsyncLogHandler(delegate, 4);
+
+        // the writer takes the first record and blocks on it, the next 4 fill the buffer
+        handler.publish(new LogRecord(Level.SEVERE, "first"));
+        delegate.publishing.await();
+        for (int i = 0; i < 6; i++)
+            handler.publish(new LogRecord(Level.SEVERE, "record " + i));
+        assertEquals(2, handler.dropped());
+
+        delegate.blocked.countDown();
+        handler.flush();
+        assertEquals(5, delegate.messages().size());
+        handler.close();
+    }
+
+    @Test
+    void setFormatter_FormatsLazilyOnTheWriter() {
+
+        CollectingHandler delegate = new CollectingHandler();
+        AsyncLogHandler handler = new AsyncLogHandler(delegate, 16);
+        handler.setFormatter(new SimpleFormatter() {
+            @Override
+            public String format(LogRecord lr) {
+                return formatMessage(lr);
+            }
+        });
+        LogRecord record = new LogRecord(Level.SEVERE, "placing card {0,number,#} in slot {1,number,#}");
+        record.setParameters(new Object[]{1234, 5});
+        handler.publish(record);
+        handler.flush();
+
+        assertEquals("placing card 1234 in slot 5", delegate.formatted.get(0));
+        handler.close();
+    }
+
+    static class CollectingHandler extends Handler {
+
+        final List<String> formatted = new ArrayList<>();
+        private final List<String> messages = new ArrayList<>();
+        final CountDownLatch publishing = new CountDownLatch(1);
+        volatile CountDownLatch blocked;
+
+        @Override
+        public void publish(LogRecord record) {
+            publishing.countDown();
+            try {
+                if (blocked != null) blocked.await();
+            } catch (InterruptedException ignored) {
+            }
+            synchronized (this) {
+                messages.add(record.getMessage());
+                if (getFormatter() != null) formatted.add(getFormatter().format(record));
+            }
+        }
+
+        synchronized List<String> messages() {
+            return new ArrayList<>(messages);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
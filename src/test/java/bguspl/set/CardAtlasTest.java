@@ -0,0 +1,77 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CardAtlasTest {
+
+    private static Config createConfig(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        properties.put("CellWidth", "60");
+        properties.put("CellHeight", "40");
+        return new Config(Logger.getAnonymousLogger(), properties);
+    }
+
+    private static BufferedImage draw(CardAtlas atlas, int card) {
+        BufferedImage cell = new BufferedImage(60, 40, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = cell.createGraphics();
+        atlas.draw(g, card, 0, 0);
+        g.dispose();
+        return cell;
+    }
+
+    private static int paintedPixels(BufferedImage image) {
+        int painted = 0;
+        for (int x = 0; x < image.getWidth(); x++)
+            for (int y = 0; y < image.getHeight(); y++)
+                if (image.getRGB(x, y) != 0) painted++;
+        return painted;
+    }
+
+    @Test
+    void draw_ScalesTheImageResources() {
+
+        Config config = createConfig(3, 4);
+        CardAtlas atlas = new CardAtlas(Logger.getAnonymousLogger(), config, new UtilImpl(config));
+
+        BufferedImage card = draw(atlas, 80);
+        assertNotEquals(0, paintedPixels(card));
+        // a card is decoded once, and drawn the same every time
+        assertEquals(card.getRGB(30, 20), draw(atlas, 80).getRGB(30, 20));
+    }
+
+    @Test
+    void draw_AllocatesOnlyThePagesOfDrawnCards() {
+
+        Config config = createConfig(3, 6);
+        CardAtlas atlas = new CardAtlas(Logger.getAnonymousLogger(), config, new UtilImpl(config));
+        assertEquals(0, atlas.allocatedPages());
+
+        draw(atlas, 0);
+        draw(atlas, 1);
+        assertEquals(1, atlas.allocatedPages());
+        draw(atlas, 728);
+        assertEquals(2, atlas.allocatedPages());
+    }
+
+    @Test
+    void draw_CardsWithNoImagesAreDrawnFromTheirFeatures() {
+
+        Config config = createConfig(4, 4);
+        CardAtlas atlas = new CardAtlas(Logger.getAnonymousLogger(), config, new UtilImpl(config));
+
+        int painted = paintedPixels(draw(atlas, 255));
+        assertNotEquals(0, painted);
+        // the empty card is only an outline
+        assertNotEquals(painted, paintedPixels(draw(atlas, -1)));
+    }
+}
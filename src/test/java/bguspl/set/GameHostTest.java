@@ -0,0 +1,93 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameHostTest {
+
+    private static Config createConfig() {
+        Properties properties = new Properties();
+        // a 9 card deck and no delays keep the games short
+        properties.put("FeatureCount", "2");
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", "2");
+        properties.put("TurnTimeoutSeconds", "0");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("PointFreezeSeconds", "0");
+        properties.put("PenaltyFreezeSeconds", "0");
+        return new Config(new MockLogger(), properties);
+    }
+
+    @Test
+    void submit_AllGamesArePlayedToTheEnd() throws InterruptedException {
+
+        GameHost host = new GameHost(new MockLogger(), createConfig(), 2);
+        for (int i = 0; i < 5; i++)
+            host.submit();
+        host.shutdown();
+        assertTrue(host.awaitTermination(60000));
+
+        List<Game> games = host.games();
+        assertEquals(5, games.size());
+        assertEquals(5, host.stateCounts().get(Game.State.FINISHED));
+        for (Game game : games) {
+            assertTrue(game.metrics().sets.sum() > 0);
+            assertTrue(game.runningNanos() > 0);
+        }
+    }
+
+    @Test
+    void submit_GamesShareOnlyImmutableResources() throws InterruptedException {
+
+        GameHost host = new GameHost(new MockLogger(), createConfig(), 1);
+        Game first = host.submit();
+        Game second = host.submit();
+        host.shutdown();
+        assertTrue(host.awaitTermination(60000));
+
+        assertSame(first.env.config, second.env.config);
+        assertSame(first.env.util, second.env.util);
+        assertNotSame(first.table, second.table);
+        assertNotSame(first.dealer, second.dealer);
+    }
+
+    @Test
+    void submit_ElapsedModeWithShortFreezes() throws InterruptedException {
+
+        // many players with short freezes, so games often end while some of them are frozen
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", "15");
+        properties.put("ComputerStrategy", "solver");
+        properties.put("ComputerReactionSeconds", "0.001");
+        properties.put("ComputerReactionDeviationSeconds", "0");
+        properties.put("ComputerSkill", "0.8");
+        properties.put("Rows", "4");
+        properties.put("Columns", "14");
+        properties.put("TurnTimeoutSeconds", "0");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("EndGamePauseSeconds", "0");
+        properties.put("PointFreezeSeconds", "0.01");
+        properties.put("PenaltyFreezeSeconds", "0.02");
+        GameHost host = new GameHost(new MockLogger(), new Config(new MockLogger(), properties), 2);
+        for (int i = 0; i < 10; i++)
+            host.submit();
+        host.shutdown();
+        assertTrue(host.awaitTermination(60000));
+        assertEquals(10, host.stateCounts().get(Game.State.FINISHED));
+    }
+
+    static class MockLogger extends Logger {
+        protected MockLogger() {
+            super("", null);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+
+@ExtendWith(MockitoExtension.class)
+class JournalTest {
+
+    @TempDir
+    Path dir;
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Logger logger;
+
+    private Config createConfig(String journalFile, int capacity) {
+        Properties properties = new Properties();
+        properties.put("JournalFile", journalFile);
+        properties.put("JournalCapacity", Integer.toString(capacity));
+        return new Config(logger, properties);
+    }
+
+    @Test
+    void read_ReturnsTheRecordedEvents() throws IOException {
+
+        Path file = dir.resolve("game.journal");
+        Journal journal = Journal.open(createConfig(file.toString(), 16), logger);
+        assertTrue(journal.enabled());
+        journal.record(Journal.Event.PLACE_CARD, -1, 3, 42);
+        journal.record(Journal.Event.PLACE_TOKEN, 1, 3, 0);
+        journal.record(Journal.Event.POINT, 1, -1, 7);
+        journal.close();
+
+        List<Journal.Entry> entries = Journal.read(file);
+        assertEquals(3, entries.size());
+        assertEquals(Journal.Event.PLACE_CARD, entries.get(0).event);
+        assertEquals(3, entries.get(0).slot);
+        assertEquals(42, entries.get(0).value);
+        assertEquals(Journal.Event.PLACE_TOKEN, entries.get(1).event);
+        assertEquals(1, entries.get(1).player);
+        assertEquals(7, entries.get(2).value);
+        assertTrue(entries.get(0).nanos <= entries.get(2).nanos);
+    }
+
+    @Test
+    void record_DropsEventsWhenFull() throws IOException {
+
+        Path file = dir.resolve("game.journal");
+        Journal journal = Journal.open(createConfig(file.toString(), 2), logger);
+        for (int i = 0; i < 5; i++)
+            journal.record(Journal.Event.CLAIM, i, -1, 0);
+        journal.close();
+
+        assertEquals(3, journal.dropped());
+        assertEquals(2, Journal.read(file).size());
+    }
+
+    @Test
+    void open_DisabledWithNoFile() {
+
+        Journal journal = Journal.open(createConfig("", 16), logger);
+        assertSame(Journal.DISABLED, journal);
+        assertFalse(journal.enabled());
+        journal.record(Journal.Event.RESHUFFLE, -1, -1, 0);
+        assertEquals(0, journal.dropped());
+    }
+
+    @Test
+    void replay_DrivesTheUserInterface() throws IOException, InterruptedException {
+
+        Path file = dir.resolve("game.journal");
+        Journal journal = Journal.open(createConfig(file.toString(), 16), logger);
+        journal.record(Journal.Event.PLACE_CARD, -1, 0, 5);
+        journal.record(Journal.Event.PLACE_TOKEN, 0, 0, 0);
+        journal.record(Journal.Event.REMOVE_TOKEN, 0, 0, 0);
+        journal.record(Journal.Event.REMOVE_CARD, -1, 0, 5);
+        journal.record(Journal.Event.WINNER, 0, -1, 1);
+        journal.close();
+
+        JournalReplay.replay(Journal.read(file), 0, ui, logger);
+
+        InOrder order = inOrder(ui);
+        order.verify(ui).placeCard(5, 0);
+        order.verify(ui).placeToken(0, 0);
+        order.verify(ui).removeToken(0, 0);
+        order.verify(ui).removeCard(0);
+        order.verify(ui).announceWinner(any());
+    }
+}
@@ -0,0 +1,54 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadBackendTest {
+
+    private static Config createConfig(String backend) {
+        Properties properties = new Properties();
+        properties.put("ExecutionBackend", backend);
+        return new Config(Logger.getAnonymousLogger(), properties);
+    }
+
+    private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    @Test
+    void newThread_VirtualOnlyWhenSupported() throws Exception {
+
+        Config config = createConfig("virtual");
+        assertEquals(ThreadBackend.virtualThreadsSupported(), config.virtualThreads);
+
+        CountDownLatch ran = new CountDownLatch(1);
+        Thread thread = ThreadBackend.newThread(config, ran::countDown, "player-0");
+        assertEquals("player-0", thread.getName());
+        if (ThreadBackend.virtualThreadsSupported()) assertTrue(isVirtual(thread));
+        // without virtual threads, the player falls back to a platform thread
+        else assertEquals(Thread.class, thread.getClass());
+        thread.start();
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void newThread_PlatformByDefault() throws InterruptedException {
+
+        Config config = createConfig("platform");
+        assertFalse(config.virtualThreads);
+
+        CountDownLatch ran = new CountDownLatch(1);
+        Thread thread = ThreadBackend.newThread(config, ran::countDown, "player-1");
+        assertEquals(Thread.class, thread.getClass());
+        thread.start();
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+}
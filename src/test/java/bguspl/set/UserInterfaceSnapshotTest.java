@@ -0,0 +1,91 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserInterfaceSnapshotTest {
+
+    private static List<Integer> dirtySlots(UserInterfaceSnapshot snapshot) {
+        List<Integer> slots = new ArrayList<>();
+        snapshot.forEachDirtySlot(slots::add);
+        return slots;
+    }
+
+    @Test
+    void changes_OnlyTheFirstRequestsAFrame() {
+
+        UserInterfaceSnapshot snapshot = new UserInterfaceSnapshot(12, 4);
+        assertTrue(snapshot.placeCard(3, 7));
+        assertFalse(snapshot.placeToken(2, 3));
+        assertFalse(snapshot.setCountdown(5000, false));
+
+        snapshot.startFrame();
+        assertTrue(snapshot.setFreeze(1, 1000));
+    }
+
+    @Test
+    void forEachDirtySlot_EachChangedSlotOnce() {
+
+        UserInterfaceSnapshot snapshot = new UserInterfaceSnapshot(70, 4);
+        snapshot.placeCard(3, 7);
+        snapshot.placeToken(2, 3);
+        snapshot.removeToken(2, 3);
+        snapshot.placeToken(1, 65);
+
+        assertEquals(Arrays.asList(3, 65), dirtySlots(snapshot));
+        assertEquals(7, snapshot.card(3));
+        assertFalse(snapshot.hasToken(2, 3));
+        assertTrue(snapshot.hasToken(1, 65));
+        assertTrue(dirtySlots(snapshot).isEmpty());
+    }
+
+    @Test
+    void tokens_ManyPlayers() {
+
+        UserInterfaceSnapshot snapshot = new UserInterfaceSnapshot(12, 100);
+        snapshot.placeToken(99, 5);
+        snapshot.placeToken(0, 5);
+        assertTrue(snapshot.hasToken(99, 5));
+        assertFalse(snapshot.hasToken(35, 5));
+
+        snapshot.removeTokens();
+        assertFalse(snapshot.hasToken(99, 5));
+        assertFalse(snapshot.hasToken(0, 5));
+    }
+
+    @Test
+    void dealCard_ShownFromItsRevealTime() {
+
+        UserInterfaceSnapshot snapshot = new UserInterfaceSnapshot(12, 4);
+        long now = System.nanoTime();
+        snapshot.dealCard(0, 5, now);
+        snapshot.dealCard(1, 6, now + 100);
+        assertEquals(6, snapshot.card(1));
+        assertTrue(snapshot.revealed(0, now));
+        assertFalse(snapshot.revealed(1, now));
+        assertTrue(snapshot.revealed(1, now + 100));
+
+        // a card placed or removed later is shown right away
+        snapshot.removeCard(1);
+        assertTrue(snapshot.revealed(1, now));
+    }
+
+    @Test
+    void timer_KindAndTimeReadTogether() {
+
+        UserInterfaceSnapshot snapshot = new UserInterfaceSnapshot(12, 4);
+        snapshot.setCountdown(950, true);
+        long timer = snapshot.timer();
+        assertEquals(950, UserInterfaceSnapshot.timerMillies(timer));
+        assertEquals(UserInterfaceSnapshot.WARNING, UserInterfaceSnapshot.timerKind(timer));
+        assertTrue(snapshot.takeDirtyTimer());
+        assertFalse(snapshot.takeDirtyTimer());
+    }
+}
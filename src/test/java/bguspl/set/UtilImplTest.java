@@ -0,0 +1,194 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UtilImplTest {
+
+    private static UtilImpl createUtil(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        return new UtilImpl(new Config(new MockLogger(), properties));
+    }
+
+    private static UtilImpl createUtil(int featureSize, int featureCount, int threads) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        return new UtilImpl(new Config(new MockLogger(), properties), new ForkJoinPool(threads));
+    }
+
+    private static List<Integer> fullDeck(int featureSize, int featureCount) {
+        return IntStream.range(0, (int) Math.pow(featureSize, featureCount)).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    void findSets_FullDeckHasAllSets() {
+
+        UtilImpl util = createUtil(3, 4);
+        List<int[]> sets = util.findSets(fullDeck(3, 4), Integer.MAX_VALUE);
+
+        // every pair of the 81 cards is completed by a single card, and each set holds 3 pairs
+        assertEquals(81 * 80 / 6, sets.size());
+        for (int[] set : sets) {
+            assertTrue(set[0] < set[1] && set[1] < set[2]);
+            assertTrue(util.testSet(set));
+        }
+    }
+
+    @Test
+    void findSets_StopsAtCount() {
+
+        UtilImpl util = createUtil(3, 4);
+        assertEquals(5, util.findSets(fullDeck(3, 4), 5).size());
+    }
+
+    @Test
+    void findSets_NoSets() {
+
+        UtilImpl util = createUtil(3, 4);
+        // cards 0, 1, 3 and 4 differ only in the last two features and hold no set
+        assertTrue(util.findSets(IntStream.of(0, 1, 3, 4).boxed().collect(Collectors.toList()), 1).isEmpty());
+    }
+
+    @Test
+    void findSets_OtherFeatureSize() {
+
+        UtilImpl util = createUtil(4, 2);
+        List<int[]> sets = util.findSets(fullDeck(4, 2), Integer.MAX_VALUE);
+
+        // a 4x4 grid: 4 rows, 4 columns and 4! permutations
+        assertEquals(4 + 4 + 24, sets.size());
+        sets.forEach(set -> assertTrue(util.testSet(set)));
+    }
+
+    @Test
+    void findSets_GeneralizedDecksHaveAllSets() {
+
+        // an ordered set is a choice of sameSame (k values) or butDifferent (k! orders) in each of the n features,
+        // except for the k ^ n choices of k copies of the same card
+        int[][] configs = {{4, 3}, {4, 4}, {5, 2}, {5, 3}};
+        for (int[] config : configs) {
+            int k = config[0], n = config[1];
+            long factorial = LongStream.rangeClosed(1, k).reduce(1, (a, b) -> a * b);
+            long expected = (long) (Math.pow(k + factorial, n) - Math.pow(k, n)) / factorial;
+
+            UtilImpl util = createUtil(k, n);
+            List<int[]> sets = util.findSets(fullDeck(k, n), Integer.MAX_VALUE);
+            assertEquals(expected, sets.size(), k + ":" + n);
+            sets.forEach(set -> assertTrue(util.testSet(set)));
+
+            List<Integer> others = fullDeck(k, n);
+            others.remove(Integer.valueOf(1));
+            // every card is in k / deckSize of the sets
+            assertEquals(expected * k / (long) Math.pow(k, n), util.findSetsWith(1, others, Integer.MAX_VALUE).size());
+        }
+    }
+
+    @Test
+    void findSets_ParallelOrderedAsSerial() {
+
+        // 729 cards hold 729 * 728 / 6 sets, well above the parallel threshold
+        List<Integer> deck = fullDeck(3, 6);
+        List<int[]> serial = createUtil(3, 6, 1).findSets(deck, Integer.MAX_VALUE, true);
+        List<int[]> parallel = createUtil(3, 6, 4).findSets(deck, Integer.MAX_VALUE, true);
+
+        assertEquals(729 * 728 / 6, serial.size());
+        assertArrayEquals(serial.toArray(new int[0][]), parallel.toArray(new int[0][]));
+    }
+
+    @Test
+    void findSets_ParallelStopsAtCount() {
+
+        UtilImpl util = createUtil(3, 6, 4);
+        List<int[]> sets = util.findSets(fullDeck(3, 6), 5);
+        assertEquals(5, sets.size());
+        sets.forEach(set -> assertTrue(util.testSet(set)));
+
+        // the first 5 sets of an ordered search are those of a serial one
+        List<int[]> ordered = util.findSets(fullDeck(3, 6), 5, true);
+        List<int[]> serial = createUtil(3, 6, 1).findSets(fullDeck(3, 6), 5, true);
+        assertArrayEquals(serial.toArray(new int[0][]), ordered.toArray(new int[0][]));
+    }
+
+    @Test
+    void findSets_ParallelCombinations() {
+
+        // C(64, 4) combinations of 4 cards
+        List<Integer> deck = fullDeck(4, 3);
+        List<int[]> serial = createUtil(4, 3, 1).findSets(deck, Integer.MAX_VALUE, true);
+        List<int[]> parallel = createUtil(4, 3, 4).findSets(deck, Integer.MAX_VALUE, true);
+
+        assertArrayEquals(serial.toArray(new int[0][]), parallel.toArray(new int[0][]));
+    }
+
+    @Test
+    void findSetsWith_OnlySetsOfTheCard() {
+
+        UtilImpl util = createUtil(3, 4);
+        List<Integer> others = fullDeck(3, 4);
+        others.remove(Integer.valueOf(5));
+        List<int[]> sets = util.findSetsWith(5, others, Integer.MAX_VALUE);
+
+        // the other 80 cards pair up into sets with card 5
+        assertEquals(40, sets.size());
+        for (int[] set : sets) {
+            assertTrue(Arrays.stream(set).anyMatch(card -> card == 5));
+            assertTrue(util.testSet(set));
+        }
+    }
+
+    @Test
+    void findSetsWith_OtherFeatureSize() {
+
+        UtilImpl util = createUtil(4, 2);
+        List<Integer> others = fullDeck(4, 2);
+        others.remove(Integer.valueOf(0));
+
+        // every card is in 32 * 4 / 16 of the sets
+        assertEquals(8, util.findSetsWith(0, others, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void testSet_LegalAndIllegal() {
+
+        UtilImpl util = createUtil(3, 4);
+        // 0000, 1111, 2222 - all features are butDifferent
+        assertTrue(util.testSet(new int[]{0, 40, 80}));
+        // 0000, 0001, 0002 - three features are sameSame and one is butDifferent
+        assertTrue(util.testSet(new int[]{0, 1, 2}));
+        // 0000, 0001, 0011 - the third feature is neither
+        assertFalse(util.testSet(new int[]{0, 1, 4}));
+    }
+
+    @Test
+    void testSet_FeaturesDoNotFitInMask() {
+
+        // 33 values for each of 2 features is more than a single long mask can hold
+        UtilImpl util = createUtil(33, 2);
+        int[] cards = IntStream.range(0, 33).toArray();
+        assertTrue(util.testSet(cards));
+        cards[32] = 33;
+        assertFalse(util.testSet(cards));
+    }
+
+    static class MockLogger extends Logger {
+        protected MockLogger() {
+            super("", null);
+        }
+    }
+}
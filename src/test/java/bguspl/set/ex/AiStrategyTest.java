@@ -0,0 +1,90 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterfaceHeadless;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AiStrategyTest {
+
+    private Env env;
+
+    private Table createTable(String strategy) {
+        Properties properties = new Properties();
+        properties.put("Rows", "2");
+        properties.put("Columns", "2");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("ComputerStrategy", strategy);
+        properties.put("ComputerReactionSeconds", "0");
+        properties.put("ComputerReactionDeviationSeconds", "0");
+        properties.put("ComputerSkill", "1");
+        properties.put("RandomSeed", "42");
+        TableTest.MockLogger logger = new TableTest.MockLogger();
+        Config config = new Config(logger, properties);
+        env = new Env(logger, config, new UserInterfaceHeadless(), new UtilImpl(config));
+        return new Table(env);
+    }
+
+    @Test
+    void solver_PressesTheSetOnTheTable() throws InterruptedException {
+
+        Table table = createTable("solver");
+        // 0000, 0001, 0002 is a set, and 0011 is in no set with them
+        table.placeCard(0, 3);
+        table.placeCard(4, 0);
+        table.placeCard(1, 2);
+        table.placeCard(2, 1);
+
+        int[] slots = AiStrategy.create(env, table, env.random.split()).chooseSlots();
+        Arrays.sort(slots);
+        assertArrayEquals(new int[]{1, 2, 3}, slots);
+    }
+
+    @Test
+    void solver_NoSetsNoPresses() throws InterruptedException {
+
+        Table table = createTable("solver");
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(4, 2);
+
+        assertEquals(0, AiStrategy.create(env, table, env.random.split()).chooseSlots().length);
+    }
+
+    @Test
+    void random_PressesDistinctCards() throws InterruptedException {
+
+        Table table = createTable("random");
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(4, 3);
+
+        int[] slots = AiStrategy.create(env, table, env.random.split()).chooseSlots();
+        Arrays.sort(slots);
+        assertArrayEquals(new int[]{0, 1, 3}, slots);
+    }
+
+    @Test
+    void random_SameSeedSameChoices() throws InterruptedException {
+
+        Table table = createTable("random");
+        for (int slot = 0; slot < 4; slot++)
+            table.placeCard(slot * 5, slot);
+        Env first = env;
+        Table other = createTable("random");
+        for (int slot = 0; slot < 4; slot++)
+            other.placeCard(slot * 5, slot);
+
+        AiStrategy strategy = AiStrategy.create(first, table, first.random.split());
+        AiStrategy same = AiStrategy.create(env, other, env.random.split());
+        for (int i = 0; i < 10; i++)
+            assertArrayEquals(strategy.chooseSlots(), same.chooseSlots());
+    }
+}
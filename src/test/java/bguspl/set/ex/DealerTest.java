@@ -0,0 +1,63 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Game;
+import bguspl.set.GameHost;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DealerTest {
+
+    private static Properties createProperties(int rows, int columns) {
+        Properties properties = new Properties();
+        properties.put("Rows", Integer.toString(rows));
+        properties.put("Columns", Integer.toString(columns));
+        properties.put("HumanPlayers", "0");
+        properties.put("ComputerPlayers", "2");
+        // no turn timeout: the dealer only reshuffles when the table holds no set
+        properties.put("TurnTimeoutSeconds", "-1");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("EndGamePauseSeconds", "0");
+        properties.put("PointFreezeSeconds", "0");
+        properties.put("PenaltyFreezeSeconds", "0");
+        return properties;
+    }
+
+    /**
+     * Plays games one after the other, and ends them if they do not end by themselves in time.
+     */
+    private static void assertPlayedToTheEnd(Properties properties, int games) throws InterruptedException {
+        GameHost host = new GameHost(new TableTest.MockLogger(), new Config(new TableTest.MockLogger(), properties), 1);
+        for (int i = 0; i < games; i++)
+            host.submit();
+        host.shutdown();
+        boolean ended = host.awaitTermination(30000);
+        if (!ended) host.terminate();
+        assertTrue(ended);
+        assertEquals(games, host.stateCounts().get(Game.State.FINISHED));
+    }
+
+    @Test
+    void run_SolverOnATableWithNoSetAndNoTimeout() throws InterruptedException {
+
+        // a table of 6 cards often holds no set, and a solver that makes no mistakes presses nothing on it
+        Properties properties = createProperties(2, 3);
+        properties.put("ComputerStrategy", "solver");
+        properties.put("ComputerSkill", "1");
+        properties.put("ComputerReactionSeconds", "0.001");
+        properties.put("ComputerReactionDeviationSeconds", "0");
+        assertPlayedToTheEnd(properties, 20);
+    }
+
+    @Test
+    void run_ReshuffleWithClaimsPending() throws InterruptedException {
+
+        // a table of 6 cards often holds no set, and is reshuffled while random players claim sets on it
+        assertPlayedToTheEnd(createProperties(2, 3), 200);
+    }
+}
@@ -0,0 +1,61 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeckTest {
+
+    private static void assertMembers(Deck deck, int deckSize) {
+        for (int card = 0; card < deckSize; card++)
+            assertEquals(deck.contains(card), (deck.members()[card / 64] & 1L << card) != 0);
+    }
+
+    @Test
+    void draw_EveryCardOnce() {
+
+        Deck deck = new Deck(81);
+        SplittableRandom random = new SplittableRandom(7);
+        Set<Integer> drawn = new HashSet<>();
+        while (!deck.isEmpty()) {
+            int card = deck.draw(random);
+            assertTrue(drawn.add(card));
+            assertFalse(deck.has(card));
+        }
+        assertEquals(81, drawn.size());
+        assertMembers(deck, 81);
+    }
+
+    @Test
+    void put_CardsReturnToTheDeck() {
+
+        Deck deck = new Deck(130);
+        assertTrue(deck.take(5));
+        assertTrue(deck.take(100));
+        assertFalse(deck.take(100));
+        assertEquals(128, deck.size());
+        assertMembers(deck, 130);
+
+        assertTrue(deck.put(100));
+        assertFalse(deck.put(100));
+        assertTrue(deck.has(100));
+        assertFalse(deck.has(5));
+        assertEquals(129, deck.size());
+        assertMembers(deck, 130);
+    }
+
+    @Test
+    void draw_SameSeedSameCards() {
+
+        Deck first = new Deck(81), second = new Deck(81);
+        SplittableRandom firstRandom = new SplittableRandom(3), secondRandom = new SplittableRandom(3);
+        for (int i = 0; i < 20; i++)
+            assertEquals(first.draw(firstRandom), second.draw(secondRandom));
+    }
+}
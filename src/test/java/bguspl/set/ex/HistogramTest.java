@@ -0,0 +1,53 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+
+    @Test
+    void percentile_WithinBucketAccuracy() {
+
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100_000; value++)
+            histogram.record(value);
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        // every power of two is split into 16 buckets
+        long p50 = histogram.percentile(50);
+        assertTrue(p50 >= 50_000 && p50 <= 50_000 * 17 / 16, "p50 " + p50);
+        long p99 = histogram.percentile(99);
+        assertTrue(p99 >= 99_000 && p99 <= 100_000, "p99 " + p99);
+    }
+
+    @Test
+    void percentile_SmallValuesAreExact() {
+
+        Histogram histogram = new Histogram();
+        histogram.record(3);
+        histogram.record(7);
+        histogram.record(-5);
+
+        assertEquals(0, histogram.percentile(10));
+        assertEquals(3, histogram.percentile(50));
+        assertEquals(7, histogram.percentile(100));
+    }
+
+    @Test
+    void add_MergesCountsAndMax() {
+
+        Histogram first = new Histogram();
+        Histogram second = new Histogram();
+        first.record(10);
+        second.record(1_000_000);
+        first.add(second);
+
+        Histogram.Snapshot snapshot = first.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMax());
+        assertEquals(10, snapshot.getP50());
+    }
+}
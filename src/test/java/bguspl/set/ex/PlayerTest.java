@@ -4,6 +4,7 @@ import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
+import bguspl.set.UtilImpl;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,9 +12,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.Properties;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -70,4 +75,30 @@ class PlayerTest {
         // check that ui.setScore was called with the player's id and the correct score
         verify(ui).setScore(eq(player.id), eq(expectedScore));
     }
+
+    @Test
+    void terminate_FrozenPlayerThreadEnds() throws InterruptedException {
+
+        Properties properties = new Properties();
+        properties.put("PenaltyFreezeSeconds", "60");
+        Config config = new Config(new TableTest.MockLogger(), properties);
+        Env env = new Env(new TableTest.MockLogger(), config, new TableTest.MockUserInterface(), new UtilImpl(config));
+        Table table = new Table(env);
+        Player[] players = new Player[1];
+        Dealer dealer = new Dealer(env, table, players);
+        players[0] = new Player(env, dealer, table, 0, false);
+        table.switchingCards = false;
+
+        // the player starts its freeze right away, and parks until the first tick of the freeze display
+        players[0].penalty();
+        Thread playerThread = new Thread(players[0], "player-0");
+        playerThread.start();
+        while (playerThread.getState() != Thread.State.WAITING && playerThread.getState() != Thread.State.TIMED_WAITING)
+            Thread.sleep(10);
+
+        // the dealer terminates the player and interrupts it (and then the thread that terminates the game)
+        assertTimeoutPreemptively(Duration.ofSeconds(10), dealer::terminate);
+        playerThread.join(10000);
+        assertFalse(playerThread.isAlive());
+    }
 }
\ No newline at end of file
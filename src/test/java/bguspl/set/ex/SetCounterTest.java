@@ -0,0 +1,63 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Util;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SetCounterTest {
+
+    private static Config createConfig(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        return new Config(new TableTest.MockLogger(), properties);
+    }
+
+    private static void assertSetsLeft(Util util, SetCounter counter, List<Integer> cards) {
+        assertEquals(!util.findSets(cards, 1).isEmpty(), counter.hasSets());
+    }
+
+    @Test
+    void hasSets_FollowsRemovedCards() {
+
+        Config config = createConfig(3, 3);
+        Util util = new UtilImpl(config);
+        SetCounter counter = new SetCounter(config, util);
+        List<Integer> cards = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        assertTrue(counter.hasSets());
+
+        // take out cards until no set is left
+        for (int card = 0; card < config.deckSize && counter.hasSets(); card += 2) {
+            counter.cardRemoved(card);
+            cards.remove(Integer.valueOf(card));
+            assertSetsLeft(util, counter, cards);
+        }
+    }
+
+    @Test
+    void hasSets_OtherFeatureSize() {
+
+        Config config = createConfig(4, 2);
+        Util util = new UtilImpl(config);
+        SetCounter counter = new SetCounter(config, util);
+        List<Integer> cards = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+
+        // removing a whole row and a whole column leaves a 3x3 grid which holds no set of 4 cards
+        for (int card : new int[]{0, 1, 2, 3, 4, 8, 12}) {
+            counter.cardRemoved(card);
+            cards.remove(Integer.valueOf(card));
+            assertSetsLeft(util, counter, cards);
+        }
+        assertFalse(counter.hasSets());
+    }
+}
@@ -0,0 +1,44 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignalTest {
+
+    @Test
+    void await_UntilTheConditionIsSignalled() throws InterruptedException {
+
+        Signal signal = new Signal();
+        boolean[] ready = {false};
+        AtomicBoolean woken = new AtomicBoolean();
+        Thread waiter = new Thread(() -> {
+            try {
+                signal.await(() -> ready[0]);
+                woken.set(true);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        waiter.start();
+
+        // a wake up that does not change the condition leaves the waiter waiting
+        signal.signalAll();
+        waiter.join(100);
+        assertFalse(woken.get());
+
+        signal.signalAll(() -> ready[0] = true);
+        waiter.join(5000);
+        assertTrue(woken.get());
+    }
+
+    @Test
+    void await_TimesOutWhenNotSignalled() throws InterruptedException {
+
+        Signal signal = new Signal();
+        assertFalse(signal.await(() -> false, 20));
+        assertTrue(signal.await(() -> true, 0));
+    }
+}
@@ -4,20 +4,27 @@ import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
+import bguspl.set.UtilImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TableTest {
 
     Table table;
     private Integer[] slotToCard;
     private Integer[] cardToSlot;
+    private Config config;
 
     @BeforeEach
     void setUp() {
@@ -34,6 +41,7 @@ class TableTest {
         Config config = new Config(logger, properties);
         slotToCard = new Integer[config.tableSize];
         cardToSlot = new Integer[config.deckSize];
+        this.config = config;
 
         Env env = new Env(logger, config, new MockUserInterface(), new MockUtil());
         table = new Table(env, slotToCard, cardToSlot);
@@ -95,6 +103,159 @@ class TableTest {
         placeSomeCardsAndAssert();
     }
 
+    @Test
+    void hasSets_FollowsPlacedAndRemovedCards() {
+
+        table = new Table(new Env(new MockLogger(), config, new MockUserInterface(), new UtilImpl(config)));
+        // 0000, 0001, 0011 hold no set
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(4, 2);
+        assertFalse(table.hasSets());
+
+        // 0002 completes a set with 0000 and 0001
+        table.placeCard(2, 3);
+        assertTrue(table.hasSets());
+        assertArrayEquals(new int[]{0, 1, 2}, table.sets().get(0));
+
+        // the sets read before a change are a snapshot, and are not changed by it
+        List<int[]> sets = table.sets();
+        table.removeCard(1);
+        assertFalse(table.hasSets());
+        assertEquals(1, sets.size());
+        assertThrows(UnsupportedOperationException.class, sets::clear);
+    }
+
+    @Test
+    void placeCard_RecordsMetrics() throws InterruptedException {
+
+        placeSomeCardsAndAssert();
+        table.removeCard(1);
+
+        // every card change waits for the table's monitor, and every card placed is searched for sets
+        assertEquals(2, table.metrics().tableLockWait.count());
+        assertEquals(1, table.metrics().findSets.count());
+    }
+
+    @Test
+    void placeCards_OneChangeOfTheTable() {
+
+        table = new Table(new Env(new MockLogger(), config, new MockUserInterface(), new UtilImpl(config)));
+        table.placeCards(new int[]{0, 1, 2, 4}, new int[]{3, 2, 1, 0});
+        assertEquals(4, table.countCards());
+        assertEquals(1, table.slotOf(2));
+        assertEquals(4, table.cardChanges());
+        assertEquals(1, table.metrics().tableLockWait.count());
+        assertArrayEquals(new int[]{0, 1, 2}, table.sets().get(0));
+
+        table.removeCards(new int[]{1, 2});
+        assertEquals(2, table.countCards());
+        assertEquals(Table.EMPTY, table.slotOf(2));
+        assertFalse(table.hasSets());
+        assertEquals(6, table.cardChanges());
+    }
+
+    @Test
+    void removeCards_RemovesTokens() {
+
+        fillAllSlots();
+        table.placeToken(0, 1);
+        table.placeToken(1, 3);
+
+        table.removeCards(new int[]{0, 1, 3});
+        assertFalse(table.hasToken(0, 1));
+        assertFalse(table.hasToken(1, 3));
+        assertEquals(1, table.countCards());
+    }
+
+    @Test
+    void replaceSet_NewCardsAndNoTokens() {
+
+        fillAllSlots();
+        table.placeToken(0, 0);
+        table.placeToken(0, 2);
+        table.placeToken(1, 2);
+        table.placeToken(1, 3);
+        long changes = table.cardChanges();
+
+        table.replaceSet(new int[]{0, 1, 2}, new int[]{10, 11, Table.EMPTY});
+        assertEquals(10, table.cardAt(0));
+        assertEquals(1, table.slotOf(11));
+        assertEquals(Table.EMPTY, table.cardAt(2));
+        assertEquals(Table.EMPTY, table.slotOf(0));
+        assertFalse(table.hasToken(0, 0));
+        assertFalse(table.hasToken(1, 2));
+        assertTrue(table.hasToken(1, 3));
+        // 3 cards taken off and 2 placed
+        assertEquals(changes + 5, table.cardChanges());
+    }
+
+    @Test
+    void reshuffleAll_SwapsTheWholeTable() {
+
+        table = new Table(new Env(new MockLogger(), config, new MockUserInterface(), new UtilImpl(config)));
+        table.placeCards(new int[]{0, 1, 2}, new int[]{0, 1, 2});
+        table.placeToken(0, 1);
+        assertTrue(table.hasSets());
+
+        table.reshuffleAll(new int[]{2, 4, Table.EMPTY, 1});
+        assertEquals(2, table.cardAt(0));
+        assertEquals(Table.EMPTY, table.slotOf(0));
+        assertEquals(3, table.slotOf(1));
+        assertEquals(3, table.countCards());
+        assertFalse(table.hasToken(0, 1));
+        assertFalse(table.hasSets());
+        assertEquals(2, table.metrics().tableLockWait.count());
+    }
+
+    @Test
+    void placeToken_UntilPlayerHasSet() {
+
+        fillAllSlots();
+        table.placeToken(0, 0);
+        table.placeToken(0, 1);
+        assertTrue(table.hasToken(0, 1));
+        assertFalse(table.playerHasSet(0));
+
+        table.placeToken(0, 2);
+        assertTrue(table.playerHasSet(0));
+        assertEquals(0, table.claims.drain().get(0).player);
+
+        // no more tokens once a set is claimed
+        table.placeToken(0, 3);
+        assertFalse(table.hasToken(0, 3));
+    }
+
+    @Test
+    void claimHolds_UntilACardIsRemoved() {
+
+        fillAllSlots();
+        for (int slot = 0; slot < 3; slot++)
+            table.placeToken(0, slot);
+        ClaimQueue.Claim claim = table.claims.drain().get(0);
+        assertArrayEquals(new int[]{0, 1, 2}, claim.slots);
+        assertArrayEquals(new int[]{0, 1, 2}, claim.cards);
+        assertTrue(table.claimHolds(claim));
+
+        table.removeCard(1);
+        assertFalse(table.claimHolds(claim));
+    }
+
+    @Test
+    void removeCard_RemovesTokens() {
+
+        fillSomeSlots();
+        table.placeToken(0, 1);
+        table.placeToken(1, 1);
+        table.placeToken(1, 0);
+        assertFalse(table.hasToken(1, 0));
+
+        table.removeCard(1);
+        assertFalse(table.hasToken(0, 1));
+        assertFalse(table.hasToken(1, 1));
+        assertFalse(table.removeToken(0, 1));
+    }
+
     static class MockUserInterface implements UserInterface {
         @Override
         public void dispose() {}
@@ -143,6 +304,11 @@ class TableTest {
             return null;
         }
 
+        @Override
+        public List<int[]> findSetsWith(int card, List<Integer> deck, int count) {
+            return Collections.emptyList();
+        }
+
         @Override
         public void spin() {}
     }
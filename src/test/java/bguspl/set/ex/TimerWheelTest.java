@@ -0,0 +1,67 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    @Test
+    void schedule_RunsTasksInDeadlineOrder() throws InterruptedException {
+
+        TimerWheel timers = new TimerWheel("test-timer-wheel");
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        timers.schedule(60, () -> {
+            order.add(3);
+            done.countDown();
+        });
+        timers.schedule(20, () -> {
+            order.add(1);
+            done.countDown();
+        });
+        timers.schedule(40, () -> {
+            order.add(2);
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(3, order.size());
+        assertEquals(1, (int) order.get(0));
+        assertEquals(2, (int) order.get(1));
+        assertEquals(3, (int) order.get(2));
+    }
+
+    @Test
+    void schedule_NotBeforeTheDeadline() throws InterruptedException {
+
+        TimerWheel timers = new TimerWheel("test-timer-wheel");
+        CountDownLatch done = new CountDownLatch(1);
+        long start = System.nanoTime();
+        // longer than a round of the wheel
+        timers.schedule(6000, done::countDown);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(6000));
+    }
+
+    @Test
+    void cancel_TaskDoesNotRun() throws InterruptedException {
+
+        TimerWheel timers = new TimerWheel("test-timer-wheel");
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CountDownLatch later = new CountDownLatch(1);
+        timers.schedule(20, cancelled::countDown).cancel();
+        timers.schedule(50, later::countDown);
+
+        assertTrue(later.await(5, TimeUnit.SECONDS));
+        assertFalse(cancelled.await(0, TimeUnit.MILLISECONDS));
+    }
+}